@@ -0,0 +1,16 @@
+package indi.constant;
+
+/**
+ * 可通过文件头（魔数）识别的图片格式，见indi.io.ImageDetector
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+public enum ImageFormat {
+    JPEG,
+    PNG,
+    GIF,
+    BMP,
+    WEBP,
+    AVIF
+}
@@ -16,4 +16,5 @@ import lombok.ToString;
 public class DirectoryDTO extends DirectoryEntryDTO {
     private List<DirectoryEntryDTO> entries;// 目录下的所有条目
     private DiskEntryType type = DiskEntryType.DIRECTORY;
+    private List<String> errors;// 扫描时出现的错误，格式为“路径：异常”（目前仅递归扫描时填充）
 }
@@ -2,20 +2,40 @@ package indi.data.dto;
 
 import java.util.Date;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import indi.constant.DiskEntryType;
+import indi.io.FileContent;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
 @Getter
 @Setter
-@ToString(callSuper = true)// 使得转化为字符串时包含继承来的属性
+@ToString(callSuper = true, doNotUseGetters = true)// 使得转化为字符串时包含继承来的属性；不通过getContent，避免读取文件
 public class FileDTO extends DirectoryEntryDTO {
     private Long size;// 文件大小
     private String storeType;// 存储方式（具体类型见 indi.constant.StoreType）
     private DiskEntryType type = DiskEntryType.FILE;
     private byte[] content;// 文件内容，字节数组格式
+    @JsonIgnore
+    private FileContent contentHandle;// 文件内容的句柄，按需读取，不会占用堆内存（since 2026.10.18）
     private Date createTime;
     private Date lastAccessTime;
     private Date lastModifiedTime;
+    
+    /**
+     * 获取文件内容；未设置内容但有内容句柄时，每次调用都将通过句柄读取整个文件，读取结果不会保存在本对象中，
+     * 需要多次使用时请由调用方保存。大文件请通过{@link #getContentHandle()}以流或内存映射的方式读取
+     * 
+     * <p>注意：Jackson序列化时将调用本方法，因此序列化启用了内容读取的扫描结果时，将读取其中的每个文件
+     * 
+     * @since 2026.10.18
+     */
+    public byte[] getContent() {
+        if (content == null && contentHandle != null) {
+            return contentHandle.bytes();
+        }
+        return content;
+    }
 }
@@ -0,0 +1,205 @@
+package indi.io;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import indi.exception.WrapperException;
+import indi.thread.BasicThread;
+
+/**
+ * 异步地遍历目录树：由独立的线程遍历目录，将对文件、目录的处理提交到有界的线程池中并行执行
+ *
+ * <p>顺序保证：目录的处理函数将在其下所有文件、子目录都处理完成后才执行（子树内后序），除此之外不保证任何顺序。
+ * 线程池的队列已满时，遍历线程将阻塞等待；目录的处理函数若由其最后完成的子任务触发，将直接在该工作线程中执行
+ *
+ * <p>处理函数抛出的异常及遍历时的IO异常不会中断遍历，将在全部完成后汇总，通过返回的Future以异常的方式结束
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+final class AsyncFileWalker {
+    private final Path root;
+    private final Consumer<Path> fileFun;
+    private final Consumer<Path> dirFun;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+    private volatile Thread walkerThread;
+
+    private AsyncFileWalker(Path root, @Nullable Consumer<Path> fileFun, @Nullable Consumer<Path> dirFun,
+            int parallelism) {
+        this.root = root;
+        this.fileFun = fileFun;
+        this.dirFun = dirFun;
+        int threads = Math.max(1, parallelism);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), (task, pool) -> {
+                    // 队列已满时阻塞遍历线程，而不是抛异常或由遍历线程执行
+                    try {
+                        pool.getQueue().put(task);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException(e);
+                    }
+                });
+    }
+
+    /**
+     * 开始遍历，立即返回
+     *
+     * @param fileFun 处理文件的函数，可为空
+     * @param dirFun 处理目录的函数，可为空
+     * @param parallelism 同时执行处理函数的线程数
+     * @return 所有处理函数执行完毕后结束的Future
+     */
+    static CompletableFuture<Void> walk(Path root, @Nullable Consumer<Path> fileFun, @Nullable Consumer<Path> dirFun,
+            int parallelism) {
+        AsyncFileWalker walker = new AsyncFileWalker(root, fileFun, dirFun, parallelism);
+        new BasicThread(walker::walk, "AsyncFileWalker-" + root.getFileName()) {}.startDeamon();
+        return walker.future;
+    }
+
+    private void walk() {
+        walkerThread = Thread.currentThread();
+        Node rootNode = new Node(null, root);
+        SubmitFileVisitor visitor = new SubmitFileVisitor(rootNode);
+        try {
+            Files.walkFileTree(root, visitor);
+            if (!visitor.rootVisited) {
+                // 根目录无法打开，此时只会调用visitFileFailed
+                finish();
+            }
+        } catch (IOException | RuntimeException e) {
+            errors.add(e);
+            // 遍历中断时，未结束的目录不会再被处理，直接结束
+            finish();
+        }
+    }
+
+    /** 关闭线程池，并根据是否有异常结束Future */
+    private void finish() {
+        executor.shutdown();
+        if (errors.isEmpty()) {
+            future.complete(null);
+        } else {
+            WrapperException e = new WrapperException("遍历目录时有" + errors.size() + "个异常：" + root);
+            errors.forEach(e::addSuppressed);
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 目录节点，pending为尚未完成的子任务数：初始的1表示目录本身尚未遍历完，每发现一个文件/子目录加1
+     */
+    private class Node {
+        private final Node parent;
+        private final Path dir;
+        private final AtomicInteger pending = new AtomicInteger(1);
+
+        Node(Node parent, Path dir) {
+            this.parent = parent;
+            this.dir = dir;
+            if (parent != null) {
+                parent.pending.incrementAndGet();
+            }
+        }
+
+        /** 完成一个子任务；全部完成后处理目录本身，再通知上级目录 */
+        void complete() {
+            if (pending.decrementAndGet() > 0) {
+                return;
+            }
+            if (dirFun == null) {
+                completed();
+                return;
+            }
+            Runnable task = () -> {
+                run(dirFun, dir);
+                completed();
+            };
+            if (Thread.currentThread() == walkerThread) {
+                executor.execute(task);
+            } else {
+                // 由工作线程触发（最后一个子任务刚完成），直接在该线程中执行；
+                // 工作线程不能阻塞等待队列，否则所有工作线程都可能因队列已满而相互等待
+                task.run();
+            }
+        }
+
+        private void completed() {
+            if (parent == null) {
+                finish();
+            } else {
+                parent.complete();
+            }
+        }
+    }
+
+    private void run(Consumer<Path> fun, Path path) {
+        try {
+            fun.accept(path);
+        } catch (Throwable e) {
+            errors.add(e);
+        }
+    }
+
+    private class SubmitFileVisitor extends SimpleFileVisitor<Path> {
+        private final LinkedList<Node> stack = new LinkedList<>();
+        private final Node rootNode;
+        private boolean rootVisited = false;
+
+        SubmitFileVisitor(Node rootNode) {
+            this.rootNode = rootNode;
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            rootVisited = true;
+            stack.push(stack.isEmpty() ? rootNode : new Node(stack.peek(), dir));
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            if (fileFun != null) {
+                Node parent = stack.peek();
+                parent.pending.incrementAndGet();
+                executor.execute(() -> {
+                    run(fileFun, file);
+                    parent.complete();
+                });
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException exc) {
+            errors.add(exc);
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+            if (exc != null) {
+                errors.add(exc);
+            }
+            stack.pop().complete();
+            return FileVisitResult.CONTINUE;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package indi.io;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于令牌桶的带宽限制器，单位为字节/秒，线程安全
+ *
+ * <p>同一个实例可被多个复制任务共享，以限制这些任务的总带宽；可在运行时通过{@link #setBytesPerSecond(long)}调整速率。
+ * 令牌桶的容量为1秒的速率，即空闲后最多允许1秒的突发流量
+ *
+ * <p>采用“先透支，后等待”的方式：获取许可时立即扣除令牌，令牌不足时按欠缺量计算等待时间，
+ * 因此先到的请求先获得带宽，不会出现大请求被小请求一直插队的情况
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+public class BandwidthLimiter {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private long bytesPerSecond;
+    /** 当前令牌数，可为负数，负数表示已透支的字节数 */
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+
+    /**
+     * @param bytesPerSecond 每秒允许传输的字节数，小于等于0表示不限速
+     */
+    public BandwidthLimiter(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.tokens = Math.max(bytesPerSecond, 0);
+    }
+
+    public synchronized long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * 调整速率，立即生效；已透支的令牌将按新速率偿还
+     *
+     * @param bytesPerSecond 每秒允许传输的字节数，小于等于0表示不限速
+     */
+    public synchronized void setBytesPerSecond(long bytesPerSecond) {
+        refill(System.nanoTime());
+        this.bytesPerSecond = bytesPerSecond;
+        if (bytesPerSecond <= 0) {
+            tokens = 0;
+        } else {
+            tokens = Math.min(tokens, bytesPerSecond);
+        }
+    }
+
+    /**
+     * 获取传输指定字节数的许可，令牌不足时将阻塞当前线程
+     *
+     * @return 阻塞的时间，单位为纳秒
+     * @throws InterruptedIOException 等待时被中断
+     */
+    public long acquire(long bytes) throws InterruptedIOException {
+        long waitNanos = reserve(bytes);
+        if (waitNanos <= 0) {
+            return 0;
+        }
+        long begin = System.nanoTime();
+        long deadline = begin + waitNanos;
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("等待带宽时被中断");
+            }
+        }
+        return System.nanoTime() - begin;
+    }
+
+    /**
+     * 建议的单次传输量：约为0.1秒可传输的数据量，使限速更平滑
+     *
+     * @param defaultSize 不限速时的传输量
+     */
+    long suggestChunkSize(long defaultSize) {
+        long rate = getBytesPerSecond();
+        if (rate <= 0) {
+            return defaultSize;
+        }
+        return Math.max(4096, Math.min(defaultSize, rate / 10));
+    }
+
+    /** 扣除令牌，返回需要等待的纳秒数 */
+    private synchronized long reserve(long bytes) {
+        if (bytesPerSecond <= 0) {
+            return 0;
+        }
+        refill(System.nanoTime());
+        tokens -= bytes;
+        return tokens >= 0 ? 0 : (long) (-tokens * NANOS_PER_SECOND / bytesPerSecond);
+    }
+
+    private void refill(long now) {
+        if (bytesPerSecond > 0) {
+            double generated = (double) (now - lastRefillNanos) * bytesPerSecond / NANOS_PER_SECOND;
+            tokens = Math.min(bytesPerSecond, tokens + generated);
+        }
+        lastRefillNanos = now;
+    }
+}
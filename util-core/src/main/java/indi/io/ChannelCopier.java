@@ -0,0 +1,334 @@
+package indi.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.Throwables;
+
+import indi.thread.BasicThread;
+
+/**
+ * {@link FileUtils#copyChannel(ReadableByteChannel, WritableByteChannel, Integer, BiConsumer, Long)}的具体实现
+ *
+ * <p>根据通道的类型选择复制方式：
+ * <ol>
+ * <li>源为FileChannel：使用transferTo，由操作系统直接在内核中复制（如sendfile），不经过用户态缓存；
+ * 之后通过缓存读取至结束，以复制大小为0的特殊文件（管道、/proc下的文件、字符设备等）及复制期间追加的内容，
+ * transferTo没有进展（如非阻塞的目标通道已满）时也改用缓存复制
+ * <li>目标为FileChannel，源为阻塞通道：使用transferFrom
+ * <li>其他：通过缓存池中的直接缓存复制；未指定缓存大小时，缓存将随读取量自适应地增大
+ * </ol>
+ * 
+ * <p>另外提供由读、写两个线程同时工作的流水线式复制，见{@link #copyPipelined}
+ * 
+ * <p>所有方式都会通过{@link TransferRecorder}记录传输量，并支持限速
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+final class ChannelCopier {
+    /** transferTo/transferFrom 单次传输的最大字节数；过大的值在部分平台上会被截断，且会降低进度回调的频率 */
+    static final long TRANSFER_CHUNK_SIZE = 8L << 20;
+    /** 自适应缓存的初始大小 */
+    static final int MIN_ADAPTIVE_BUFFER_SIZE = 8 << 10;
+    /** 自适应缓存的最大大小 */
+    static final int MAX_ADAPTIVE_BUFFER_SIZE = 1 << 20;
+    /** 非阻塞的目标通道暂时无法写入时，重试前等待的时间 */
+    private static final long WRITE_RETRY_NANOS = 1000000;
+
+    private ChannelCopier() {}
+
+    /**
+     * 复制通道的内容，不会关闭通道
+     *
+     * @param bufferSize 缓存大小，可为空，为空时使用自适应大小的缓存；只对通过缓存复制的部分生效
+     * @return 复制的字节数
+     */
+    static long copy(ReadableByteChannel source, WritableByteChannel target, @Nullable Integer bufferSize,
+            TransferRecorder recorder) throws IOException {
+        if (source instanceof FileChannel) {
+            return transferTo((FileChannel) source, target, bufferSize, recorder);
+        }
+        if (target instanceof FileChannel && isBlocking(source)) {
+            return transferFrom(source, (FileChannel) target, recorder);
+        }
+        return copyByBuffer(source, target, bufferSize, recorder);
+    }
+
+    /** 非阻塞通道读取不到数据时也会返回0，无法与结束区分，不能用transferFrom */
+    private static boolean isBlocking(ReadableByteChannel channel) {
+        return !(channel instanceof SelectableChannel) || ((SelectableChannel) channel).isBlocking();
+    }
+
+    private static long transferTo(FileChannel source, WritableByteChannel target, @Nullable Integer bufferSize,
+            TransferRecorder recorder) throws IOException {
+        long begin = source.position();
+        long position = begin;
+        long size = source.size();
+        while (position < size) {
+            long chunkSize = recorder.chunkSize(TRANSFER_CHUNK_SIZE);
+            long count = source.transferTo(position, Math.min(chunkSize, size - position), target);
+            if (count <= 0) {
+                // 文件在复制期间被截断，或非阻塞的目标通道已满，交由缓存复制处理
+                break;
+            }
+            position += count;
+            recorder.record(count);
+        }
+        // transferTo 不会修改源通道的position，手动更新以与其他复制方式保持一致
+        source.position(position);
+        // 大小不可信（为0的特殊文件、复制期间追加或截断），读取至结束
+        return position - begin + copyByBuffer(source, target, bufferSize, recorder);
+    }
+
+    private static long transferFrom(ReadableByteChannel source, FileChannel target, TransferRecorder recorder)
+            throws IOException {
+        long begin = target.position();
+        long position = begin;
+        long count;
+        // 对阻塞的源通道，返回0表示已读取完毕
+        while ((count = target.transferFrom(source, position, recorder.chunkSize(TRANSFER_CHUNK_SIZE))) > 0) {
+            position += count;
+            recorder.record(count);
+        }
+        target.position(position);
+        return position - begin;
+    }
+
+    private static long copyByBuffer(ReadableByteChannel source, WritableByteChannel target,
+            @Nullable Integer bufferSize, TransferRecorder recorder) throws IOException {
+        boolean adaptive = bufferSize == null;
+        ByteBuffer buffer = DirectBufferPool.SHARED.acquire(adaptive ? MIN_ADAPTIVE_BUFFER_SIZE : bufferSize);
+        if (!adaptive) {
+            buffer.limit(bufferSize);
+        }
+        long total = 0;
+        try {
+            int count;
+            while ((count = source.read(buffer)) != -1) {
+                boolean full = !buffer.hasRemaining();
+                buffer.flip();
+                writeFully(target, buffer);
+                total += count;
+                recorder.record(count);
+
+                if (adaptive && full && buffer.capacity() < recorder.chunkSize(MAX_ADAPTIVE_BUFFER_SIZE)) {
+                    // 单次读取即填满缓存，说明源通道的数据充足，增大缓存以减少系统调用
+                    ByteBuffer larger = DirectBufferPool.SHARED.acquire(buffer.capacity() << 1);
+                    DirectBufferPool.SHARED.release(buffer);
+                    buffer = larger;
+                } else {
+                    buffer.clear();
+                    if (!adaptive) {
+                        buffer.limit(bufferSize);
+                    }
+                }
+            }
+        } finally {
+            DirectBufferPool.SHARED.release(buffer);
+        }
+        return total;
+    }
+
+    /** 写入缓存中的所有数据；非阻塞的目标通道暂时无法写入时，短暂等待后重试，避免空转 */
+    private static void writeFully(WritableByteChannel target, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (target.write(buffer) == 0) {
+                LockSupport.parkNanos(WRITE_RETRY_NANOS);
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("等待写入时被中断");
+                }
+            }
+        }
+    }
+
+    /**
+     * 流水线式复制：由独立的读线程不断将数据读入缓存环，当前线程同时将已读取的缓存写入目标通道。
+     * 适用于源、目标均较慢（如网络 -> 磁盘）的场景，耗时接近于max(读, 写)而不是两者之和
+     *
+     * <p>读线程出错时，将在当前线程中抛出该异常；写入出错时，读线程将在完成当前读取后结束，不会中断读线程，
+     * 以免可中断通道因中断而被关闭
+     *
+     * @param bufferSize 每个缓存的大小
+     * @param bufferCount 缓存环中缓存的数量，至少为2
+     * @return 复制的字节数
+     */
+    static long copyPipelined(ReadableByteChannel source, WritableByteChannel target, int bufferSize,
+            int bufferCount, TransferRecorder recorder) throws IOException {
+        ArrayBlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(bufferCount);
+        // 额外的一个位置用于存放结束标记
+        ArrayBlockingQueue<ByteBuffer> filled = new ArrayBlockingQueue<>(bufferCount + 1);
+        for (int i = 0; i < bufferCount; i++) {
+            free.add(DirectBufferPool.SHARED.acquire(bufferSize));
+        }
+        PipelineReader reader = new PipelineReader(source, bufferSize, free, filled);
+        reader.startDeamon();
+        
+        long total = 0;
+        boolean completed = false;
+        try {
+            ByteBuffer buffer;
+            while ((buffer = take(filled, recorder)) != END_OF_PIPELINE) {
+                int count = buffer.remaining();
+                writeFully(target, buffer);
+                total += count;
+                recorder.record(count);
+                free.put(buffer);
+            }
+            if (reader.error != null) {
+                Throwables.throwIfInstanceOf(reader.error, IOException.class);
+                Throwables.throwIfUnchecked(reader.error);
+                throw new IOException(reader.error);
+            }
+            completed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("复制时被中断");
+        } finally {
+            reader.aborted = true;
+            if (completed) {
+                // 读线程已结束，所有缓存都已归还到空闲队列
+                free.forEach(DirectBufferPool.SHARED::release);
+            } else {
+                // 唤醒可能正等待空闲缓存的读线程，使其结束；缓存交由GC回收
+                free.offer(ByteBuffer.allocate(0));
+            }
+        }
+        return total;
+    }
+    
+    /** 从队列中获取缓存，并将等待的时间记录为停顿 */
+    private static ByteBuffer take(BlockingQueue<ByteBuffer> queue, TransferRecorder recorder)
+            throws InterruptedException {
+        ByteBuffer buffer = queue.poll();
+        if (buffer == null) {
+            long begin = System.nanoTime();
+            buffer = queue.take();
+            recorder.stall(System.nanoTime() - begin);
+        }
+        return buffer;
+    }
+    
+    /** 流水线结束标记 */
+    private static final ByteBuffer END_OF_PIPELINE = ByteBuffer.allocate(0);
+
+    /**
+     * 流水线的读线程
+     */
+    private static class PipelineReader extends BasicThread {
+        private final ReadableByteChannel source;
+        private final int bufferSize;
+        private final BlockingQueue<ByteBuffer> free;
+        private final BlockingQueue<ByteBuffer> filled;
+        private volatile Throwable error;
+        private volatile boolean aborted = false;
+        
+        PipelineReader(ReadableByteChannel source, int bufferSize, BlockingQueue<ByteBuffer> free,
+                BlockingQueue<ByteBuffer> filled) {
+            super("copyChannel-reader");
+            this.source = source;
+            this.bufferSize = bufferSize;
+            this.free = free;
+            this.filled = filled;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!aborted) {
+                    ByteBuffer buffer = free.take();
+                    if (aborted) {
+                        break;
+                    }
+                    buffer.clear();
+                    buffer.limit(bufferSize);
+                    if (source.read(buffer) == -1) {
+                        free.offer(buffer);
+                        break;
+                    }
+                    buffer.flip();
+                    filled.put(buffer);
+                }
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                filled.offer(END_OF_PIPELINE);
+            }
+        }
+    }
+
+    /**
+     * 记录每次传输：统计传输量并按最低间隔调用速度处理函数，更新实时统计，并根据限速器限制速度
+     */
+    static class TransferRecorder {
+        private final BiConsumer<Long, Long> speedProcessFun;
+        private final long minInterval;
+        private final BandwidthLimiter limiter;
+        private final CopyMetrics metrics;
+        private long lastMillis = System.currentTimeMillis();
+        private long size = 0;
+
+        /**
+         * @param speedProcessFun 可为空，为空时不调用
+         * @param minInterval 可为空，为空时每次传输都调用
+         * @param limiter 可为空，为空时不限速
+         * @param metrics 可为空，为空时不统计
+         */
+        TransferRecorder(@Nullable BiConsumer<Long, Long> speedProcessFun, @Nullable Long minInterval,
+                @Nullable BandwidthLimiter limiter, @Nullable CopyMetrics metrics) {
+            this.speedProcessFun = speedProcessFun;
+            this.minInterval = minInterval == null ? 0 : minInterval;
+            this.limiter = limiter;
+            this.metrics = metrics;
+        }
+
+        TransferRecorder(ChannelCopyOptions options) {
+            this(options.getSpeedProcessFun(), options.getSpeedProcessMinInterval(), options.getLimiter(),
+                    options.getMetrics());
+        }
+
+        /** 单次传输的最大字节数；限速时将减小传输量，使速度更平滑 */
+        long chunkSize(long defaultSize) {
+            return limiter == null ? defaultSize : limiter.suggestChunkSize(defaultSize);
+        }
+
+        /** 记录已传输的字节数；限速时，将阻塞到允许继续传输为止 */
+        void record(long count) throws InterruptedIOException {
+            if (metrics != null) {
+                metrics.addBytes(count);
+            }
+            if (limiter != null) {
+                stall(limiter.acquire(count));
+            }
+            if (speedProcessFun == null) {
+                return;
+            }
+            size += count;
+            long cost = System.currentTimeMillis() - lastMillis;// 本次处理时间
+            if (cost >= minInterval) {
+                speedProcessFun.accept(size, cost);
+                lastMillis = System.currentTimeMillis();// 从该函数结束后才开始统计下一次间隔
+                size = 0;
+            }
+        }
+
+        /** 记录没有传输数据的时间 */
+        void stall(long nanos) {
+            if (metrics != null && nanos > 0) {
+                metrics.addStall(nanos);
+            }
+        }
+    }
+}
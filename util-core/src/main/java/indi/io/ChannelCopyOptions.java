@@ -0,0 +1,35 @@
+package indi.io;
+
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.function.BiConsumer;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * {@link FileUtils#copy(ReadableByteChannel, WritableByteChannel, ChannelCopyOptions)}的参数，所有参数均可为空
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+@Getter
+@Builder
+public class ChannelCopyOptions {
+    /** 缓存的大小；为空时，普通复制使用自适应大小的缓存，流水线复制取64KB */
+    private Integer bufferSize;
+    /** 流水线复制的缓存数量；为空或小于2时不使用流水线 */
+    private Integer bufferCount;
+    /** 操作<数据传输量，实际间隔>的函数 */
+    private BiConsumer<Long, Long> speedProcessFun;
+    /** 执行speedProcessFun的最低间隔，单位为毫秒 */
+    private Long speedProcessMinInterval;
+    /** 带宽限制器，可被多个复制任务共享 */
+    private BandwidthLimiter limiter;
+    /** 实时统计，可被多个复制任务共享 */
+    private CopyMetrics metrics;
+
+    boolean isPipelined() {
+        return bufferCount != null && bufferCount >= 2;
+    }
+}
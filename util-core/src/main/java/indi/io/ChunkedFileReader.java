@@ -0,0 +1,141 @@
+package indi.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import indi.exception.WrapperException;
+import lombok.Getter;
+
+/**
+ * 按固定大小的块顺序读取文件，块的缓存为池化的直接缓存，不占用堆内存，用完后需调用{@link FileChunk#release()}归还
+ *
+ * <p>通过{@link FileUtils#readChunks(Path, int)}创建，用完后需关闭。非线程安全，但读取到的块可交由其他线程处理、释放
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+public final class ChunkedFileReader implements Closeable {
+    private final FileChannel channel;
+    private final int chunkSize;
+    private long position = 0;
+    private boolean eof = false;
+
+    ChunkedFileReader(Path path, int chunkSize) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("块大小必须大于0：" + chunkSize);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 读取下一块，除最后一块外，每块都将读满
+     *
+     * @return 已读完时返回null
+     */
+    @Nullable
+    public FileChunk next() {
+        if (eof) {
+            return null;
+        }
+        ByteBuffer buffer = DirectBufferPool.SHARED.acquire(chunkSize);
+        buffer.limit(chunkSize);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    eof = true;
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            DirectBufferPool.SHARED.release(buffer);
+            throw new WrapperException(e);
+        }
+        buffer.flip();
+        if (!buffer.hasRemaining()) {
+            DirectBufferPool.SHARED.release(buffer);
+            return null;
+        }
+        FileChunk chunk = new FileChunk(position, buffer);
+        position += buffer.remaining();
+        return chunk;
+    }
+
+    /**
+     * 依次读取所有剩余的块并交由给定函数处理，处理后立即释放
+     *
+     * @param consumer 不应在函数外保留缓存的引用
+     */
+    public void forEach(Consumer<ByteBuffer> consumer) {
+        FileChunk chunk;
+        while ((chunk = next()) != null) {
+            try {
+                consumer.accept(chunk.getBuffer());
+            } finally {
+                chunk.release();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        }
+    }
+
+    /**
+     * 文件中的一块，可通过try-with-resources释放
+     */
+    public static final class FileChunk implements AutoCloseable {
+        /** 该块在文件中的偏移量 */
+        @Getter
+        private final long offset;
+        private ByteBuffer buffer;
+
+        private FileChunk(long offset, ByteBuffer buffer) {
+            this.offset = offset;
+            this.buffer = buffer;
+        }
+
+        /**
+         * 块的内容，position为0，limit为块的长度
+         *
+         * @throws IllegalStateException 已释放时
+         */
+        public ByteBuffer getBuffer() {
+            if (buffer == null) {
+                throw new IllegalStateException("块已释放");
+            }
+            return buffer;
+        }
+
+        /** 块的长度 */
+        public int size() {
+            return getBuffer().limit();
+        }
+
+        /** 归还缓存，重复调用无效果。释放后不应再使用之前获取的缓存 */
+        public void release() {
+            ByteBuffer released = buffer;
+            buffer = null;
+            if (released != null) {
+                DirectBufferPool.SHARED.release(released);
+            }
+        }
+
+        @Override
+        public void close() {
+            release();
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package indi.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import indi.exception.WrapperException;
+import indi.thread.BasicThread;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 并行地查找目录下文件的内容：遍历线程将文件提交到有界的线程池，各线程以内存映射的方式读取文件并查找，
+ * 匹配结果放入有界队列，由调用方通过迭代器逐个取出；调用方处理较慢时，查找将暂停等待
+ *
+ * <p>普通字符串使用Boyer-Moore-Horspool算法直接在字节上查找，不解码文件；正则表达式则逐行解码后匹配。
+ * 同一文件的匹配按偏移量顺序返回，不同文件的匹配之间不保证顺序
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+@Slf4j
+final class ContentSearcher implements Iterator<SearchMatch>, Closeable {
+    /** 判断是否为二进制文件时检查的字节数 */
+    private static final int BINARY_CHECK_SIZE = 8 * 1024;
+    /** 匹配结果中，行内容在匹配内容前后最多保留的字节数 */
+    private static final int TEXT_CONTEXT = 512;
+    private static final int RESULT_QUEUE_SIZE = 1024;
+    /** 结束标记 */
+    private static final SearchMatch END = new SearchMatch(null, -1, -1, null);
+
+    private final Path root;
+    private final SearchOptions options;
+    private final byte[] literal;
+    private final Pattern pattern;
+    private final BlockingQueue<SearchMatch> results = new ArrayBlockingQueue<>(RESULT_QUEUE_SIZE);
+    private final ThreadPoolExecutor executor;
+    private final BasicThread walker;
+    private volatile boolean closed = false;
+    /** 遍历或查找时出现的第一个非IO异常（如文件过滤条件抛出的异常），将在取完结果后抛给调用方 */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private SearchMatch next;
+    private boolean finished = false;
+
+    /**
+     * 开始查找，立即返回
+     */
+    ContentSearcher(Path root, String pattern, SearchOptions options) {
+        if (pattern.isEmpty()) {
+            throw new IllegalArgumentException("查找内容不能为空");
+        }
+        this.root = root;
+        this.options = options;
+        if (options.isRegex() || options.isIgnoreCase()) {
+            String regex = options.isRegex() ? pattern : Pattern.quote(pattern);
+            this.pattern = Pattern.compile(regex,
+                    options.isIgnoreCase() ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0);
+            this.literal = null;
+        } else {
+            this.pattern = null;
+            this.literal = pattern.getBytes(options.getCharset());
+        }
+        int threads = Math.max(1, options.getParallelism());
+        AtomicInteger threadIndex = new AtomicInteger();
+        // 使用守护线程，未关闭的查找不会阻止JVM退出
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), runnable -> {
+                    Thread thread = new BasicThread(runnable, "ContentSearcher-" + root.getFileName() + "-"
+                            + threadIndex.incrementAndGet()) {};
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.walker = new BasicThread(this::walk, "ContentSearcher-" + root.getFileName()) {};
+        walker.startDeamon();
+    }
+
+    private void walk() {
+        try {
+            Files.walkFileTree(root, EnumSet.noneOf(FileVisitOption.class), options.getMaxDepth(),
+                    new SimpleFileVisitor<Path>() {
+                        @Override
+                        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                            if (closed) {
+                                return FileVisitResult.TERMINATE;
+                            }
+                            if (attrs.isRegularFile() && attrs.size() > 0
+                                    && (options.getFileFilter() == null || options.getFileFilter().test(file))) {
+                                executor.execute(() -> {
+                                    try {
+                                        searchFile(file);
+                                    } catch (RuntimeException | Error e) {
+                                        failure.compareAndSet(null, e);
+                                    }
+                                });
+                            }
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                            log.debug("无法访问 {}：{}", file, exc.toString());
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+        } catch (IOException e) {
+            log.warn("遍历目录失败 {}：{}", root, e.toString());
+        } catch (RuntimeException | Error e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            // 无论遍历是否异常结束，都需等待已提交的查找完成并放入结束标记，否则调用方将一直等待
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                if (!closed) {
+                    emit(END);
+                }
+            } catch (InterruptedException e) {
+                // 已关闭
+            }
+        }
+    }
+
+    private void searchFile(Path file) {
+        if (closed) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedFile mapped = new MappedFile(channel);
+            if (options.isSkipBinary() && mapped.indexOf((byte) 0, 0, Math.min(mapped.size, BINARY_CHECK_SIZE)) >= 0) {
+                return;
+            }
+            if (literal != null) {
+                searchLiteral(file, mapped);
+            } else {
+                searchRegex(file, mapped);
+            }
+        } catch (IOException e) {
+            log.debug("无法读取 {}：{}", file, e.toString());
+        } catch (InterruptedException e) {
+            // 已关闭
+        }
+    }
+
+    /**
+     * Boyer-Moore-Horspool：从模式的末尾开始比较，不匹配时按窗口末尾字节在模式中最后出现的位置跳过
+     */
+    private void searchLiteral(Path file, MappedFile mapped) throws InterruptedException {
+        int m = literal.length;
+        int[] shift = new int[256];
+        Arrays.fill(shift, m);
+        for (int i = 0; i < m - 1; i++) {
+            shift[literal[i] & 0xFF] = m - 1 - i;
+        }
+        byte last = literal[m - 1];
+        long n = mapped.size;
+        long line = 1;
+        long lineStart = 0;
+        long counted = 0;
+        int matches = 0;
+        long pos = 0;
+        while (pos <= n - m && matches < options.getMaxMatchesPerFile() && !closed) {
+            byte b = mapped.get(pos + m - 1);
+            if (b == last && matchesAt(mapped, pos, m - 1)) {
+                // 统计到匹配位置为止的行数
+                for (long i = counted; i < pos; i++) {
+                    if (mapped.get(i) == '\n') {
+                        line++;
+                        lineStart = i + 1;
+                    }
+                }
+                counted = pos;
+                emit(new SearchMatch(file, pos, line, lineText(mapped, lineStart, pos, m)));
+                matches++;
+                pos += m;
+            } else {
+                pos += shift[b & 0xFF];
+            }
+        }
+    }
+
+    private boolean matchesAt(MappedFile mapped, long pos, int length) {
+        for (int j = length - 1; j >= 0; j--) {
+            if (mapped.get(pos + j) != literal[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** 匹配内容所在行的内容，只保留匹配内容前后各{@link #TEXT_CONTEXT}个字节 */
+    private String lineText(MappedFile mapped, long lineStart, long matchStart, int matchLength) {
+        long from = Math.max(lineStart, matchStart - TEXT_CONTEXT);
+        long limit = Math.min(mapped.size, matchStart + matchLength + TEXT_CONTEXT);
+        long to = mapped.indexOf((byte) '\n', matchStart + matchLength, limit);
+        if (to < 0) {
+            to = limit;
+        }
+        if (to > from && mapped.get(to - 1) == '\r') {
+            to--;
+        }
+        return mapped.decode(from, to, options.getCharset());
+    }
+
+    /** 逐行解码后以正则表达式匹配 */
+    private void searchRegex(Path file, MappedFile mapped) throws InterruptedException {
+        Charset charset = options.getCharset();
+        Matcher matcher = pattern.matcher("");
+        long n = mapped.size;
+        long line = 1;
+        int matches = 0;
+        for (long start = 0; start < n && !closed; line++) {
+            long end = mapped.indexOf((byte) '\n', start, n);
+            if (end < 0) {
+                end = n;
+            }
+            long contentEnd = end > start && mapped.get(end - 1) == '\r' ? end - 1 : end;
+            String text = mapped.decode(start, contentEnd, charset);
+            matcher.reset(text);
+            while (matcher.find()) {
+                if (matches++ >= options.getMaxMatchesPerFile()) {
+                    return;
+                }
+                long offset = start + text.substring(0, matcher.start()).getBytes(charset).length;
+                emit(new SearchMatch(file, offset, line, text));
+            }
+            start = end + 1;
+        }
+    }
+
+    /** 放入结果队列，队列已满时等待；关闭时将被中断 */
+    private void emit(SearchMatch match) throws InterruptedException {
+        results.put(match);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            try {
+                next = results.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                return false;
+            }
+            if (next == END) {
+                next = null;
+                finished = true;
+                Throwable e = failure.get();
+                if (e instanceof RuntimeException) {
+                    throw (RuntimeException) e;
+                } else if (e != null) {
+                    throw new WrapperException(e);
+                }
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public SearchMatch next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        SearchMatch result = next;
+        next = null;
+        return result;
+    }
+
+    /** 停止查找，未取出的结果将被丢弃 */
+    @Override
+    public void close() {
+        closed = true;
+        finished = true;
+        executor.shutdownNow();
+        walker.interrupt();
+        results.clear();
+    }
+
+    /**
+     * 以内存映射的方式读取文件；超过单个缓存的最大容量时，将分段映射
+     */
+    private static class MappedFile {
+        private static final int SEGMENT_BITS = 30;
+        private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+        private final MappedByteBuffer[] segments;
+        private final long size;
+
+        MappedFile(FileChannel channel) throws IOException {
+            this.size = channel.size();
+            int count = (int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS);
+            this.segments = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long position = (long) i << SEGMENT_BITS;
+                segments[i] = channel.map(MapMode.READ_ONLY, position, Math.min(size - position, 1L << SEGMENT_BITS));
+            }
+        }
+
+        byte get(long position) {
+            return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & SEGMENT_MASK));
+        }
+
+        /** 在[from, to)中查找字节，不存在时返回-1 */
+        long indexOf(byte b, long from, long to) {
+            for (long i = from; i < to; i++) {
+                if (get(i) == b) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        String decode(long from, long to, Charset charset) {
+            byte[] bytes = new byte[(int) (to - from)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = get(from + i);
+            }
+            return new String(bytes, charset);
+        }
+    }
+}
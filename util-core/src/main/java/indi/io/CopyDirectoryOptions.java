@@ -0,0 +1,40 @@
+package indi.io;
+
+import java.nio.file.Path;
+import java.util.function.BiConsumer;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * {@link FileUtils#copyDirectory(Path, Path, CopyDirectoryOptions)}的参数
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+@Getter
+@Builder
+public class CopyDirectoryOptions {
+    /** 并行度，即同时复制文件的线程数，默认为CPU核数 */
+    @Builder.Default
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    /** 是否保留文件/目录的属性（修改时间等） */
+    @Builder.Default
+    private boolean preserveAttributes = false;
+    /** 增量复制：目标文件已存在且大小、修改时间均与源文件相同时跳过。启用时总是会保留文件的修改时间 */
+    @Builder.Default
+    private boolean incremental = false;
+    /** 不小于该值的文件视为大文件，单独提交并通过FileChannel.transferTo复制，单位为字节 */
+    @Builder.Default
+    private long largeFileThreshold = 1 << 20;
+    /** 小文件将按该数量分批提交，以减少任务调度的开销 */
+    @Builder.Default
+    private int smallFileBatchSize = 64;
+    /** 每复制完一个文件调用一次，参数为<目标文件，大小>；将在复制线程中并发调用，可为空 */
+    private BiConsumer<Path, Long> fileCopiedFun;
+
+    /** 默认参数 */
+    public static CopyDirectoryOptions defaults() {
+        return builder().build();
+    }
+}
@@ -0,0 +1,85 @@
+package indi.io;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 复制过程的实时统计，线程安全，可被多个复制任务共享以统计总量
+ *
+ * <ul>
+ * <li>总字节数
+ * <li>吞吐量：指数加权移动平均（时间常数为5秒），单位为字节/秒
+ * <li>停顿时间：因限速或等待流水线中的另一方而没有传输数据的时间
+ * </ul>
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+public class CopyMetrics {
+    /** 更新吞吐量的最小间隔，避免间隔过短导致瞬时速率失真 */
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    /** 移动平均的时间常数 */
+    private static final double TAU_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final LongAdder totalBytes = new LongAdder();
+    private final LongAdder stallNanos = new LongAdder();
+
+    private long pendingBytes = 0;
+    private long lastTickNanos = System.nanoTime();
+    private double throughput = -1;
+
+    void addBytes(long bytes) {
+        totalBytes.add(bytes);
+        synchronized (this) {
+            pendingBytes += bytes;
+            long now = System.nanoTime();
+            long elapsed = now - lastTickNanos;
+            if (elapsed >= TICK_NANOS) {
+                tick(now, elapsed);
+            }
+        }
+    }
+
+    void addStall(long nanos) {
+        stallNanos.add(nanos);
+    }
+
+    private void tick(long now, long elapsed) {
+        double instant = pendingBytes * 1e9 / elapsed;
+        if (throughput < 0) {
+            throughput = instant;
+        } else {
+            double alpha = 1 - Math.exp(-elapsed / TAU_NANOS);
+            throughput += alpha * (instant - throughput);
+        }
+        pendingBytes = 0;
+        lastTickNanos = now;
+    }
+
+    /** 已复制的总字节数 */
+    public long getTotalBytes() {
+        return totalBytes.sum();
+    }
+
+    /** 吞吐量的移动平均值，单位为字节/秒；尚无足够数据时返回0 */
+    public synchronized double getThroughput() {
+        long now = System.nanoTime();
+        long elapsed = now - lastTickNanos;
+        if (elapsed >= TICK_NANOS) {
+            // 长时间没有数据时，使吞吐量逐渐衰减
+            tick(now, elapsed);
+        }
+        return Math.max(throughput, 0);
+    }
+
+    /** 停顿的总时间，单位为毫秒 */
+    public long getStallMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(stallNanos.sum());
+    }
+
+    @Override
+    public String toString() {
+        return "CopyMetrics(totalBytes=" + getTotalBytes() + ", throughput=" + (long) getThroughput()
+                + ", stallMillis=" + getStallMillis() + ")";
+    }
+}
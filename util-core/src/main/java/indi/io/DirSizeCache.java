@@ -0,0 +1,70 @@
+package indi.io;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 目录大小的缓存，用于{@link FileUtils#dirSize(Path, boolean, int, DirSizeCache)}，线程安全
+ *
+ * <p>以目录为单位缓存其下文件（不含子目录）的总大小及子目录列表，并以目录的修改时间判断缓存是否有效。
+ * 命中缓存时无需列出目录，只需读取一次目录的属性，适合重复统计变化很少的目录
+ *
+ * <p>注意：目录的修改时间只在其下条目被新增、删除、重命名时改变，修改已有文件的内容不会使缓存失效。
+ * 此时需调用{@link #invalidate(Path)}或{@link #clear()}
+ *
+ * <p>修改时间的精度有限，列出目录的同时或稍后发生的变化可能不改变修改时间。因此缓存同时记录开始列出目录的时间，
+ * 修改时间不早于该时间减去{@link #TIMESTAMP_GRANULARITY_MILLIS}的目录，其缓存不可信，下次统计时仍将重新列出；
+ * 与{@link indi.scanner.ScanCache}的规则相同
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+public class DirSizeCache {
+    /** 修改时间的最大精度（如FAT为2秒），毫秒；也用于容忍文件系统与本机时钟的少量偏差 */
+    public static final long TIMESTAMP_GRANULARITY_MILLIS = 2000;
+
+    private final ConcurrentHashMap<Path, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 获取缓存，修改时间不一致，或修改时间与列出目录的时间过于接近、无法确定列出后是否有变化时视为无效，返回null
+     */
+    Entry get(Path dir, FileTime lastModifiedTime) {
+        Entry entry = entries.get(dir);
+        return entry != null && entry.lastModifiedTime.equals(lastModifiedTime)
+                && lastModifiedTime.toMillis() < entry.scannedAt - TIMESTAMP_GRANULARITY_MILLIS ? entry : null;
+    }
+
+    void put(Path dir, Entry entry) {
+        entries.put(dir, entry);
+    }
+
+    /** 移除指定目录的缓存 */
+    public void invalidate(Path dir) {
+        entries.remove(dir);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /** 已缓存的目录数 */
+    public int size() {
+        return entries.size();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class Entry {
+        private final FileTime lastModifiedTime;
+        /** 开始列出目录的时间，毫秒 */
+        private final long scannedAt;
+        /** 目录下文件的总大小，不含子目录 */
+        private final long filesSize;
+        private final List<Path> subDirectories;
+    }
+}
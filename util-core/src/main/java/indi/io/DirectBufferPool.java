@@ -0,0 +1,62 @@
+package indi.io;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 直接缓存（DirectByteBuffer）池，线程安全
+ *
+ * <p>直接缓存的分配与回收代价远高于堆缓存，且回收依赖GC，频繁分配容易导致堆外内存不足。
+ * 本类按2的幂次对容量分级，每级最多缓存固定数量的缓存，超出的缓存将直接丢弃，交由GC回收
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+final class DirectBufferPool {
+    /** 全局共享的缓存池 */
+    static final DirectBufferPool SHARED = new DirectBufferPool(16);
+
+    private final ConcurrentHashMap<Integer, ArrayBlockingQueue<ByteBuffer>> pools = new ConcurrentHashMap<>();
+    private final int maxPooledPerSize;
+
+    DirectBufferPool(int maxPooledPerSize) {
+        this.maxPooledPerSize = maxPooledPerSize;
+    }
+
+    /**
+     * 获取容量不小于给定值的缓存，缓存已清空（clear）
+     */
+    ByteBuffer acquire(int minCapacity) {
+        int capacity = roundUp(minCapacity);
+        ArrayBlockingQueue<ByteBuffer> pool = pools.get(capacity);
+        ByteBuffer buffer = pool == null ? null : pool.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(capacity);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * 归还缓存。归还后调用方不应再使用该缓存
+     */
+    void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || Integer.bitCount(buffer.capacity()) != 1) {
+            return;
+        }
+        pools.computeIfAbsent(buffer.capacity(), k -> new ArrayBlockingQueue<>(maxPooledPerSize))
+                .offer(buffer);// 池已满时丢弃
+    }
+
+    /** 向上取整到2的幂次 */
+    private static int roundUp(int capacity) {
+        if (capacity <= 1) {
+            return 1;
+        }
+        if (capacity > 1 << 30) {
+            throw new IllegalArgumentException("缓存容量过大：" + capacity);
+        }
+        return Integer.highestOneBit(capacity - 1) << 1;
+    }
+}
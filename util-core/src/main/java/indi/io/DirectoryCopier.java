@@ -0,0 +1,225 @@
+package indi.io;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.CopyOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import indi.data.Pair;
+import indi.exception.WrapperException;
+
+/**
+ * {@link FileUtils#copyDirectory(Path, Path, CopyDirectoryOptions)}的具体实现
+ *
+ * <p>由当前线程遍历源目录并创建目标目录，文件的复制提交到有界的线程池中并发执行：
+ * 大文件单独提交，通过FileChannel.transferTo复制；小文件分批提交，通过Files.copy复制。
+ * 线程池的队列已满时，由遍历线程自己执行复制，从而限制内存中待执行任务的数量
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+final class DirectoryCopier {
+    private final Path source;
+    private final Path dest;
+    private final CopyDirectoryOptions options;
+    private final FileOperationSummary summary = new FileOperationSummary();
+    /** 需要在复制完成后恢复修改时间的目录（先序） */
+    private final LinkedList<Pair<Path, BasicFileAttributes>> directories = new LinkedList<>();
+
+    private DirectoryCopier(Path source, Path dest, CopyDirectoryOptions options) {
+        this.source = source;
+        this.dest = dest;
+        this.options = options;
+    }
+
+    static FileOperationSummary copy(Path source, Path dest, CopyDirectoryOptions options) {
+        return new DirectoryCopier(source, dest, options).copy();
+    }
+
+    private FileOperationSummary copy() {
+        int parallelism = Math.max(1, options.getParallelism());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(parallelism * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            Files.walkFileTree(source, new CopyFileVisitor(executor));
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        } finally {
+            executor.shutdown();
+            awaitTermination(executor);
+        }
+        if (options.isPreserveAttributes()) {
+            // 复制文件会修改目录的修改时间，因此在所有文件复制完成后再恢复目录的属性
+            directories.descendingIterator().forEachRemaining(pair -> {
+                Path target = dest.resolve(source.relativize(pair.getFirst()));
+                try {
+                    copyTimes(pair.getSecond(), target);
+                } catch (IOException e) {
+                    summary.addFailure(target, e);
+                }
+            });
+        }
+        return summary;
+    }
+
+    private static void awaitTermination(ThreadPoolExecutor executor) {
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                // 继续等待
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new WrapperException("复制目录时被中断");
+        }
+    }
+
+    private class CopyFileVisitor extends SimpleFileVisitor<Path> {
+        private final ThreadPoolExecutor executor;
+        private List<Pair<Path, BasicFileAttributes>> batch = new ArrayList<>();
+
+        CopyFileVisitor(ThreadPoolExecutor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            if (dir.equals(dest)) {
+                // 目标目录位于源目录下，跳过以免无限复制
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+            Path target = dest.resolve(source.relativize(dir));
+            try {
+                Files.createDirectories(target);
+                summary.addDirectory();
+            } catch (IOException e) {
+                summary.addFailure(target, e);
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+            if (options.isPreserveAttributes()) {
+                directories.add(Pair.of(dir, attrs));
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            if (attrs.isRegularFile() && attrs.size() >= options.getLargeFileThreshold()) {
+                executor.execute(() -> copyFile(file, attrs));
+            } else {
+                batch.add(Pair.of(file, attrs));
+                if (batch.size() >= options.getSmallFileBatchSize()) {
+                    submitBatch();
+                }
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException exc) {
+            summary.addFailure(file, exc);
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+            if (exc != null) {
+                summary.addFailure(dir, exc);
+            }
+            if (dir.equals(source)) {
+                submitBatch();
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        private void submitBatch() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<Pair<Path, BasicFileAttributes>> files = batch;
+            batch = new ArrayList<>(options.getSmallFileBatchSize());
+            executor.execute(() -> files.forEach(pair -> copyFile(pair.getFirst(), pair.getSecond())));
+        }
+    }
+
+    private void copyFile(Path file, BasicFileAttributes attrs) {
+        Path target = dest.resolve(source.relativize(file));
+        try {
+            if (options.isIncremental() && isSame(attrs, target)) {
+                summary.addSkipped();
+                return;
+            }
+            if (attrs.isRegularFile() && attrs.size() >= options.getLargeFileThreshold()) {
+                transfer(file, target);
+                if (options.isPreserveAttributes() || options.isIncremental()) {
+                    copyTimes(attrs, target);
+                }
+            } else {
+                Files.copy(file, target, copyOptions(attrs));
+            }
+            summary.addFile(attrs.size());
+            if (options.getFileCopiedFun() != null) {
+                options.getFileCopiedFun().accept(target, attrs.size());
+            }
+        } catch (IOException e) {
+            summary.addFailure(file, e);
+        }
+    }
+
+    private CopyOption[] copyOptions(BasicFileAttributes attrs) {
+        List<CopyOption> copyOptions = new ArrayList<>(3);
+        copyOptions.add(StandardCopyOption.REPLACE_EXISTING);
+        if (options.isPreserveAttributes() || options.isIncremental()) {
+            copyOptions.add(StandardCopyOption.COPY_ATTRIBUTES);
+        }
+        if (attrs.isSymbolicLink()) {
+            // 复制链接本身，而不是链接指向的内容
+            copyOptions.add(LinkOption.NOFOLLOW_LINKS);
+        }
+        return copyOptions.toArray(new CopyOption[copyOptions.size()]);
+    }
+
+    /**
+     * 目标文件是否已存在，且大小、修改时间都与源文件相同
+     *
+     * <p>修改时间只比较到毫秒：JDK 9+复制属性时可能将目标文件的修改时间截断到微秒，而源文件保留纳秒，直接比较将永远不同
+     */
+    private static boolean isSame(BasicFileAttributes attrs, Path target) throws IOException {
+        try {
+            BasicFileAttributes targetAttrs = Files.readAttributes(target, BasicFileAttributes.class,
+                    LinkOption.NOFOLLOW_LINKS);
+            return targetAttrs.size() == attrs.size()
+                    && targetAttrs.lastModifiedTime().toMillis() == attrs.lastModifiedTime().toMillis();
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private static void transfer(Path file, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(file);
+                FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            ChannelCopier.copy(in, out, null, new ChannelCopier.TransferRecorder(null, null, null, null));
+        }
+    }
+
+    private static void copyTimes(BasicFileAttributes attrs, Path target) throws IOException {
+        Files.getFileAttributeView(target, BasicFileAttributeView.class)
+                .setTimes(attrs.lastModifiedTime(), attrs.lastAccessTime(), attrs.creationTime());
+    }
+}
@@ -0,0 +1,115 @@
+package indi.io;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 按层遍历目录（BFS），每次迭代返回下一层的所有子目录；同一层的各个目录将并行地列出
+ *
+ * <p>追踪符号链接时，将通过文件标识（fileKey）或真实路径避免重复访问同一目录，以免陷入循环
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+@Slf4j
+final class DirectoryFinder implements Iterator<List<Path>> {
+    private final int maxDepth;
+    private final boolean followLinks;
+    /** 追踪链接时，已访问过的目录 */
+    private final Set<Object> visited;
+    private List<Path> frontier;
+    private int depth = 0;
+
+    /**
+     * @param root 起始目录，不会出现在结果中
+     * @param maxDepth 最大深度，1表示只查找直接子目录
+     * @param options 可指定FileVisitOption.FOLLOW_LINKS以追踪符号链接
+     */
+    DirectoryFinder(Path root, int maxDepth, FileVisitOption... options) {
+        this.maxDepth = maxDepth;
+        this.followLinks = Arrays.asList(options).contains(FileVisitOption.FOLLOW_LINKS);
+        this.visited = followLinks ? ConcurrentHashMap.newKeySet() : null;
+        this.frontier = Collections.singletonList(root);
+        if (followLinks) {
+            visit(root);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !frontier.isEmpty() && depth < maxDepth;
+    }
+
+    /**
+     * @return 下一层的所有子目录，同一父目录下的子目录相邻
+     */
+    @Override
+    public List<Path> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        frontier = frontier.parallelStream()
+                .flatMap(dir -> listSubDirectories(dir).stream())
+                .collect(Collectors.toList());
+        depth++;
+        return frontier;
+    }
+
+    private List<Path> listSubDirectories(Path dir) {
+        List<Path> result = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path entry : stream) {
+                if (isDirectory(entry)) {
+                    result.add(entry);
+                }
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            // 无权访问等情况，跳过该目录
+            log.debug("无法列出目录 {}：{}", dir, e.toString());
+        }
+        return result;
+    }
+
+    private boolean isDirectory(Path entry) {
+        try {
+            BasicFileAttributes attrs = followLinks
+                    ? Files.readAttributes(entry, BasicFileAttributes.class)
+                    : Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            return attrs.isDirectory() && (!followLinks || visit(entry, attrs));
+        } catch (IOException e) {
+            // 如指向不存在路径的链接
+            return false;
+        }
+    }
+
+    /** 标记目录为已访问，若之前未访问过则返回true */
+    private boolean visit(Path dir) {
+        try {
+            return visit(dir, Files.readAttributes(dir, BasicFileAttributes.class));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private boolean visit(Path dir, BasicFileAttributes attrs) throws IOException {
+        Object key = attrs.fileKey();
+        return visited.add(key != null ? key : dir.toRealPath());
+    }
+}
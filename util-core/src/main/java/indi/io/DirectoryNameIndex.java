@@ -0,0 +1,85 @@
+package indi.io;
+
+import java.nio.file.FileVisitOption;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import lombok.Getter;
+
+/**
+ * 目录名索引：一次性遍历根目录下的所有目录，建立 目录名 -> 路径 的内存索引，用于重复查找同一根目录下的目录，无需再次遍历磁盘
+ *
+ * <p>索引建立后不会感知磁盘的变化，需要时可调用{@link #refresh()}重建
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+public class DirectoryNameIndex {
+    @Getter
+    private final Path root;
+    private final int maxDepth;
+    private final FileVisitOption[] options;
+    private volatile Map<String, List<Path>> index;
+
+    private DirectoryNameIndex(Path root, int maxDepth, FileVisitOption... options) {
+        this.root = root;
+        this.maxDepth = maxDepth;
+        this.options = options;
+        refresh();
+    }
+
+    /**
+     * 遍历根目录并建立索引
+     *
+     * @param root 根目录
+     * @param maxDepth 最大深度，1表示只索引直接子目录
+     * @param options 可指定FileVisitOption.FOLLOW_LINKS以追踪符号链接
+     */
+    public static DirectoryNameIndex build(Path root, int maxDepth, FileVisitOption... options) {
+        return new DirectoryNameIndex(root, maxDepth, options);
+    }
+
+    public static DirectoryNameIndex build(Path root) {
+        return build(root, Integer.MAX_VALUE);
+    }
+
+    /** 重新遍历根目录并重建索引 */
+    public void refresh() {
+        try (Stream<Path> stream = FileUtils.findDirectories(root, p -> true, maxDepth, options)) {
+            index = stream.collect(Collectors.groupingBy(p -> p.getFileName().toString(), HashMap::new,
+                    Collectors.toList()));
+        }
+    }
+
+    /**
+     * 查找所有指定名称的目录
+     *
+     * @return 按深度由浅到深排序；不存在时返回空列表
+     */
+    public List<Path> find(String directoryName) {
+        return Collections.unmodifiableList(index.getOrDefault(directoryName, Collections.emptyList()));
+    }
+
+    /**
+     * 查找指定名称的目录中深度最浅的一个，与{@link FileUtils#findDirectory(Path, String)}的结果一致
+     *
+     * @return 不存在时返回null
+     */
+    @Nullable
+    public Path findFirst(String directoryName) {
+        List<Path> paths = index.get(directoryName);
+        return paths == null ? null : paths.get(0);
+    }
+
+    /** 已索引的目录名数量 */
+    public int size() {
+        return index.size();
+    }
+}
@@ -0,0 +1,398 @@
+package indi.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.google.common.hash.HashCode;
+
+import indi.data.Pair;
+import indi.exception.WrapperException;
+import indi.util.CheckUtils;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 目录快照：将目录树中所有条目的（相对路径，大小，修改时间，可选的散列值）按顺序写入紧凑的二进制文件，
+ * 并可流式地比较两个快照，得出新增、删除、修改的条目，无需将快照全部读入内存
+ *
+ * <p>条目按深度优先的顺序排列，同一目录下的子条目按名称排序，即按{@link #comparePaths(String, String)}排序。
+ * 相邻条目的路径通常有很长的公共前缀，每个条目只记录与上一条目的公共前缀长度及剩余部分
+ *
+ * <p>文件格式：魔数DSNP + 版本号（1字节），之后为各个条目：公共前缀长度（varint）、剩余部分长度（varint）、
+ * 剩余部分（UTF-8）、标记（1字节，第1位表示目录，第2位表示有散列值）、大小（varint，只有文件有）、
+ * 修改时间（varint）、散列值（16字节，可选）
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class DirectorySnapshot {
+    private static final byte[] MAGIC = { 'D', 'S', 'N', 'P' };
+    private static final int VERSION = 1;
+    private static final int FLAG_DIRECTORY = 1;
+    private static final int FLAG_HASH = 1 << 1;
+    private static final int HASH_LENGTH = 16;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 为目录树创建快照，不追踪符号链接（链接本身作为文件记录）。无法列出的子目录将被跳过
+     *
+     * @param root 根目录，不会出现在快照中
+     * @param snapshotFile 快照文件，已存在时将被覆盖
+     * @param withHash 是否计算文件内容的散列值；将读取所有文件，每个目录下的文件将并行计算
+     * @return 条目数
+     */
+    public static long write(Path root, Path snapshotFile, boolean withHash) {
+        if (!Files.isDirectory(root, LinkOption.NOFOLLOW_LINKS)) {
+            throw new IllegalArgumentException("路径指向的目录不存在：" + root);
+        }
+        try (SnapshotWriter writer = new SnapshotWriter(snapshotFile)) {
+            writeDirectory(root, "", writer, withHash, true);
+            return writer.count;
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        }
+    }
+
+    private static void writeDirectory(Path dir, String prefix, SnapshotWriter writer, boolean withHash,
+            boolean isRoot) throws IOException {
+        List<Pair<String, BasicFileAttributes>> children = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path child : stream) {
+                children.add(Pair.of(child.getFileName().toString(),
+                        Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS)));
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            if (isRoot) {
+                throw e instanceof IOException ? (IOException) e : ((DirectoryIteratorException) e).getCause();
+            }
+            log.warn("无法列出目录 {}：{}", dir, e.toString());
+            return;
+        }
+        children.sort((a, b) -> a.getFirst().compareTo(b.getFirst()));
+        byte[][] hashes = withHash ? hash(dir, children) : null;
+        for (int i = 0; i < children.size(); i++) {
+            String name = children.get(i).getFirst();
+            BasicFileAttributes attrs = children.get(i).getSecond();
+            String path = prefix + name;
+            boolean directory = attrs.isDirectory();
+            writer.write(new SnapshotEntry(path, directory, directory ? 0 : attrs.size(),
+                    attrs.lastModifiedTime().toMillis(), hashes == null ? null : hashes[i]));
+            if (directory) {
+                writeDirectory(dir.resolve(name), path + "/", writer, withHash, false);
+            }
+        }
+    }
+
+    /** 并行计算目录下各个普通文件的散列值 */
+    private static byte[][] hash(Path dir, List<Pair<String, BasicFileAttributes>> children) {
+        byte[][] hashes = new byte[children.size()][];
+        IntStream.range(0, children.size()).parallel()
+                .filter(i -> children.get(i).getSecond().isRegularFile())
+                .forEach(i -> {
+                    try {
+                        String hex = CheckUtils.getMurmur3(dir.resolve(children.get(i).getFirst()));
+                        hashes[i] = HashCode.fromString(hex).asBytes();
+                    } catch (WrapperException | IllegalArgumentException e) {
+                        // 读取失败或已被删除，不记录散列值
+                        log.warn("无法计算文件的散列值 {}：{}", children.get(i).getFirst(), e.toString());
+                    }
+                });
+        return hashes;
+    }
+
+    /**
+     * 按顺序读取快照中的所有条目，返回的流需要关闭
+     */
+    public static Stream<SnapshotEntry> read(Path snapshotFile) {
+        SnapshotReader reader = open(snapshotFile);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(reader, Spliterator.ORDERED
+                | Spliterator.NONNULL), false).onClose(reader::close);
+    }
+
+    /**
+     * 流式地比较两个快照：同时顺序读取两个快照并归并，内存占用与快照大小无关。返回的流需要关闭
+     *
+     * <p>文件的类型、大小、修改时间或散列值（两个快照中都有时）不同时视为修改；目录只比较类型，
+     * 其修改时间随子条目的增删而变化，不视为修改
+     *
+     * @return 按路径顺序排列的差异
+     */
+    public static Stream<SnapshotDiff> diff(Path oldSnapshot, Path newSnapshot) {
+        SnapshotReader oldReader = open(oldSnapshot);
+        SnapshotReader newReader;
+        try {
+            newReader = open(newSnapshot);
+        } catch (RuntimeException e) {
+            oldReader.close();
+            throw e;
+        }
+        Iterator<SnapshotDiff> iterator = new DiffIterator(oldReader, newReader);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED
+                | Spliterator.NONNULL), false).onClose(() -> {
+                    try {
+                        oldReader.close();
+                    } finally {
+                        newReader.close();
+                    }
+                });
+    }
+
+    /**
+     * 快照中条目的顺序：逐字符比较，但/小于任何字符，即按路径的各段依次比较，目录排在其子条目之前
+     */
+    public static int comparePaths(String a, String b) {
+        int n = Math.min(a.length(), b.length());
+        for (int i = 0; i < n; i++) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(i);
+            if (ca != cb) {
+                if (ca == '/') {
+                    return -1;
+                }
+                if (cb == '/') {
+                    return 1;
+                }
+                return ca - cb;
+            }
+        }
+        return a.length() - b.length();
+    }
+
+    private static SnapshotReader open(Path snapshotFile) {
+        try {
+            return new SnapshotReader(snapshotFile);
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        }
+    }
+
+    private static class DiffIterator implements Iterator<SnapshotDiff> {
+        private final SnapshotReader oldReader;
+        private final SnapshotReader newReader;
+        private SnapshotEntry oldEntry;
+        private SnapshotEntry newEntry;
+        private SnapshotDiff next;
+
+        DiffIterator(SnapshotReader oldReader, SnapshotReader newReader) {
+            this.oldReader = oldReader;
+            this.newReader = newReader;
+            this.oldEntry = oldReader.hasNext() ? oldReader.next() : null;
+            this.newEntry = newReader.hasNext() ? newReader.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && (oldEntry != null || newEntry != null)) {
+                int compare = oldEntry == null ? 1
+                        : newEntry == null ? -1 : comparePaths(oldEntry.getPath(), newEntry.getPath());
+                if (compare < 0) {
+                    next = new SnapshotDiff(SnapshotDiff.Kind.REMOVED, oldEntry, null);
+                    oldEntry = oldReader.hasNext() ? oldReader.next() : null;
+                } else if (compare > 0) {
+                    next = new SnapshotDiff(SnapshotDiff.Kind.ADDED, null, newEntry);
+                    newEntry = newReader.hasNext() ? newReader.next() : null;
+                } else {
+                    if (isModified(oldEntry, newEntry)) {
+                        next = new SnapshotDiff(SnapshotDiff.Kind.MODIFIED, oldEntry, newEntry);
+                    }
+                    oldEntry = oldReader.hasNext() ? oldReader.next() : null;
+                    newEntry = newReader.hasNext() ? newReader.next() : null;
+                }
+            }
+            return next != null;
+        }
+
+        private static boolean isModified(SnapshotEntry a, SnapshotEntry b) {
+            if (a.isDirectory() != b.isDirectory()) {
+                return true;
+            }
+            if (a.isDirectory()) {
+                return false;
+            }
+            return a.getSize() != b.getSize() || a.getLastModified() != b.getLastModified()
+                    || (a.getHash() != null && b.getHash() != null && !Arrays.equals(a.getHash(), b.getHash()));
+        }
+
+        @Override
+        public SnapshotDiff next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            SnapshotDiff result = next;
+            next = null;
+            return result;
+        }
+    }
+
+    private static class SnapshotWriter implements Closeable {
+        private final DataOutputStream out;
+        private byte[] previous = new byte[0];
+        private long count = 0;
+
+        SnapshotWriter(Path file) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), IO_BUFFER_SIZE));
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+        }
+
+        void write(SnapshotEntry entry) throws IOException {
+            byte[] path = entry.getPath().getBytes(StandardCharsets.UTF_8);
+            int shared = 0;
+            int max = Math.min(path.length, previous.length);
+            while (shared < max && path[shared] == previous[shared]) {
+                shared++;
+            }
+            writeVarLong(shared);
+            writeVarLong(path.length - shared);
+            out.write(path, shared, path.length - shared);
+            int flags = (entry.isDirectory() ? FLAG_DIRECTORY : 0) | (entry.getHash() != null ? FLAG_HASH : 0);
+            out.writeByte(flags);
+            if (!entry.isDirectory()) {
+                writeVarLong(entry.getSize());
+            }
+            writeVarLong(entry.getLastModified());
+            if (entry.getHash() != null) {
+                out.write(entry.getHash());
+            }
+            previous = path;
+            count++;
+        }
+
+        /** 无符号的变长整数，每字节7位，最高位表示后面还有字节；负数（如早于1970年的修改时间）占10字节 */
+        private void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.writeByte((int) value);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private static class SnapshotReader implements Iterator<SnapshotEntry>, Closeable {
+        private final DataInputStream in;
+        private byte[] previous = new byte[256];
+        private SnapshotEntry next;
+        private boolean eof = false;
+
+        SnapshotReader(Path file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), IO_BUFFER_SIZE));
+            try {
+                byte[] magic = new byte[MAGIC.length];
+                in.readFully(magic);
+                if (!Arrays.equals(MAGIC, magic)) {
+                    throw new IOException("不是目录快照文件：" + file);
+                }
+                int version = in.readUnsignedByte();
+                if (version != VERSION) {
+                    throw new IOException("不支持的快照版本：" + version);
+                }
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !eof) {
+                try {
+                    next = readEntry();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                eof = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public SnapshotEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            SnapshotEntry result = next;
+            next = null;
+            return result;
+        }
+
+        private SnapshotEntry readEntry() throws IOException {
+            int first = in.read();
+            if (first < 0) {
+                return null;
+            }
+            int shared = (int) readVarLong(first);
+            int suffix = (int) readVarLong(in.readUnsignedByte());
+            int length = shared + suffix;
+            if (length > previous.length) {
+                previous = Arrays.copyOf(previous, Math.max(length, previous.length * 2));
+            }
+            in.readFully(previous, shared, suffix);
+            String path = new String(previous, 0, length, StandardCharsets.UTF_8);
+            int flags = in.readUnsignedByte();
+            boolean directory = (flags & FLAG_DIRECTORY) != 0;
+            long size = directory ? 0 : readVarLong(in.readUnsignedByte());
+            long lastModified = readVarLong(in.readUnsignedByte());
+            byte[] hash = null;
+            if ((flags & FLAG_HASH) != 0) {
+                hash = new byte[HASH_LENGTH];
+                in.readFully(hash);
+            }
+            return new SnapshotEntry(path, directory, size, lastModified, hash);
+        }
+
+        private long readVarLong(int first) throws IOException {
+            long value = first & 0x7F;
+            int shift = 7;
+            int b = first;
+            while ((b & 0x80) != 0) {
+                b = in.read();
+                if (b < 0) {
+                    throw new EOFException("快照文件不完整");
+                }
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            }
+            return value;
+        }
+
+        @Override
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                throw new WrapperException(e);
+            }
+        }
+    }
+}
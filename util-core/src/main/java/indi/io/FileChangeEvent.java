@@ -0,0 +1,32 @@
+package indi.io;
+
+import java.nio.file.Path;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 文件变化事件，见{@link RecursiveDirectoryWatcher}、{@link indi.scanner.DiskScanner#rescan}
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class FileChangeEvent {
+    private final Kind kind;
+    /** 发生变化的文件或目录 */
+    private final Path path;
+    /** 是否为目录；删除事件中为删除前记录的类型 */
+    private final boolean directory;
+
+    public enum Kind {
+        CREATE,
+        MODIFY,
+        DELETE
+    }
+}
@@ -0,0 +1,85 @@
+package indi.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import indi.exception.WrapperException;
+import lombok.Getter;
+
+/**
+ * 文件内容的句柄：创建时不读取文件，使用时再按需以输入流、内存映射或字节数组的方式读取
+ *
+ * <p>{@link #map()}的结果将被缓存，直到调用{@link #release()}；映射的缓存在释放引用并被GC回收后才会解除映射。
+ * 线程安全
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+public final class FileContent implements AutoCloseable {
+    @Getter
+    private final Path path;
+    /** 创建句柄时文件的大小，文件可能已被修改 */
+    @Getter
+    private final long size;
+    private ByteBuffer mapped;
+
+    private FileContent(Path path, long size) {
+        this.path = path;
+        this.size = size;
+    }
+
+    /**
+     * @param size 已知的文件大小，用于避免再次读取文件属性
+     */
+    public static FileContent of(Path path, long size) {
+        return new FileContent(path, size);
+    }
+
+    /** 打开输入流，需由调用方关闭 */
+    public InputStream open() {
+        try {
+            return Files.newInputStream(path);
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        }
+    }
+
+    /**
+     * 读取文件的全部内容，大文件将映射到内存，见{@link FileUtils#readBuffer(Path)}；重复调用将返回同一份内容
+     *
+     * @return 只读的缓存，position为0，limit为文件大小；各次调用返回的缓存相互独立
+     */
+    public synchronized ByteBuffer map() {
+        if (mapped == null) {
+            mapped = FileUtils.readBuffer(path);
+        }
+        return mapped.duplicate();
+    }
+
+    /** 将文件的全部内容读取到堆中，每次调用都将重新读取 */
+    public byte[] bytes() {
+        ByteBuffer buffer;
+        synchronized (this) {
+            buffer = mapped == null ? null : mapped.duplicate();
+        }
+        if (buffer == null) {
+            return FileUtils.readAllBytes(path);
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /** 释放{@link #map()}缓存的内容，重复调用无效果；释放后仍可再次读取 */
+    public synchronized void release() {
+        mapped = null;
+    }
+
+    @Override
+    public void close() {
+        release();
+    }
+}
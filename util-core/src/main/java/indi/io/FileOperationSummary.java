@@ -0,0 +1,74 @@
+package indi.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import indi.data.Pair;
+import lombok.ToString;
+
+/**
+ * 批量文件操作（删除、复制、移动等）的统计结果，线程安全
+ *
+ * <p>批量操作遇到单个条目出错时不会中断，而是将出错的路径及异常记录到本对象中，由调用方决定如何处理
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+@ToString
+public class FileOperationSummary {
+    private final LongAdder files = new LongAdder();
+    private final LongAdder directories = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final ConcurrentLinkedQueue<Pair<Path, IOException>> failures = new ConcurrentLinkedQueue<>();
+
+    void addFile(long size) {
+        files.increment();
+        bytes.add(size);
+    }
+
+    void addDirectory() {
+        directories.increment();
+    }
+
+    void addSkipped() {
+        skipped.increment();
+    }
+
+    void addFailure(Path path, IOException e) {
+        failures.add(Pair.of(path, e));
+    }
+
+    /** 处理成功的文件数 */
+    public long getFiles() {
+        return files.sum();
+    }
+
+    /** 处理成功的目录数 */
+    public long getDirectories() {
+        return directories.sum();
+    }
+
+    /** 被跳过（无需处理）的文件数 */
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    /** 处理成功的文件的总字节数，如删除时释放的空间、复制时写入的数据量 */
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    /** 处理失败的路径及其异常 */
+    public List<Pair<Path, IOException>> getFailures() {
+        return new ArrayList<>(failures);
+    }
+
+    public boolean hasFailure() {
+        return !failures.isEmpty();
+    }
+}
@@ -1,17 +1,20 @@
 package indi.io;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryIteratorException;
 import java.nio.file.DirectoryNotEmptyException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitOption;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
@@ -23,29 +26,46 @@ import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributeView;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.annotation.Nullable;
 
-import org.apache.commons.io.ByteOrderMark;
-import org.apache.commons.io.input.BOMInputStream;
 import org.junit.jupiter.api.Test;
 
 import com.google.common.collect.ImmutableSet;
 
+import indi.constant.ImageFormat;
+import indi.data.Pair;
 import indi.exception.WrapperException;
 import indi.util.StringUtils;
 import lombok.AccessLevel;
@@ -187,6 +207,88 @@ public class FileUtils {
         }
     }
 
+    /**
+     * 并行地清空目录。基于ForkJoinPool实现，将同时删除同级的各个子目录，每个目录在其下所有条目删除后才删除。
+     * 
+     * <p>与{@link #clearDirectory(Path, boolean)}不同，遇到无法删除的条目时不会中断，而是记录到返回结果中继续处理其他条目；
+     * 且不会为每个文件记录日志。适用于清理含有大量小文件的缓存目录。符号链接只会删除链接本身，不会删除其指向的内容
+     * 
+     * @param directory 若不存在或不是目录，将直接返回空的统计结果
+     * @param deleteSelf 是否删除目录本身
+     * @param parallelism 并行度，即同时执行删除的线程数
+     * @return 删除的文件数、释放的字节数及失败的条目
+     * @since 2026.10.18
+     */
+    public static final FileOperationSummary clearDirectory(Path directory, boolean deleteSelf, int parallelism) {
+        FileOperationSummary summary = new FileOperationSummary();
+        if (!validDirectory(directory, false)) {
+            return summary;
+        }
+        invoke(new DeleteTask(directory, deleteSelf, summary), parallelism);
+        return summary;
+    }
+    
+    /**
+     * 在新建的指定并行度的ForkJoinPool中执行任务，执行完毕后关闭线程池
+     */
+    static final <T> T invoke(ForkJoinTask<T> task, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(task);
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * 删除单个目录的任务：删除目录下的文件，为每个子目录派生子任务，等待子任务完成后再删除目录本身
+     */
+    @AllArgsConstructor
+    private static class DeleteTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Path dir;
+        private final boolean deleteSelf;
+        private final FileOperationSummary summary;
+
+        @Override
+        protected void compute() {
+            List<DeleteTask> subTasks = new LinkedList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path entry : stream) {
+                    BasicFileAttributes attrs = null;
+                    try {
+                        // 不追踪链接，使符号链接被当作普通文件删除
+                        attrs = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                        if (attrs.isDirectory()) {
+                            DeleteTask subTask = new DeleteTask(entry, true, summary);
+                            subTask.fork();
+                            subTasks.add(subTask);
+                        } else {
+                            Files.delete(entry);
+                            summary.addFile(attrs.size());
+                        }
+                    } catch (IOException e) {
+                        summary.addFailure(entry, e);
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                summary.addFailure(dir, e instanceof IOException ? (IOException) e : ((DirectoryIteratorException) e).getCause());
+                return;
+            }
+            subTasks.forEach(DeleteTask::join);
+            
+            if (deleteSelf) {
+                try {
+                    Files.delete(dir);
+                    summary.addDirectory();
+                } catch (IOException e) {
+                    // 子条目删除失败时，将在此抛出DirectoryNotEmptyException
+                    summary.addFailure(dir, e);
+                }
+            }
+        }
+    }
+
     @AllArgsConstructor
     private static class DeleteFileVisitor extends SimpleFileVisitor<Path> {
         private Path source;
@@ -200,7 +302,7 @@ public class FileUtils {
         @Override
         public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
             if (deleteSource || !source.equals(dir)) {
-                log.debug("删除文件夹: {}", dir);
+                log.trace("删除文件夹: {}", dir);
                 Files.delete(dir);
             }
             
@@ -209,7 +311,7 @@ public class FileUtils {
 
         @Override
         public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-            log.debug("删除文件: {}", file);
+            log.trace("删除文件: {}", file);
             Files.delete(file);
             return FileVisitResult.CONTINUE;
         }
@@ -278,63 +380,124 @@ public class FileUtils {
     }
 
     /**
-     * 移动文件/文件夹到指定路径下，若涉及到多个文件（夹），将逐个处理。将把源目录整个移动到目标路径<b>下</b>，
-     * 如：将/a移动到/b，结果为/a/b
+     * 移动文件/文件夹到指定路径下。将把源目录整个移动到目标路径<b>下</b>，
+     * 如：将/a移动到/b，结果为/b/a
      * 
      * <p>因为是将源目录移动到指定目录下，因此该方法无法用于重命名
      * 
-     * <p>本方法其实完全可以用Files.move替代，只是省去了计算目标路径；并且，移动目录时，会逐个执行Files.move，而不是只操作整个目录
+     * <p>2026.10.18 源目录与目标路径位于同一文件系统时，将先尝试直接重命名整个目录；目标目录已存在且非空时，
+     * 将合并两个目录，其中目标路径下不存在的子目录仍会被整个重命名。位于不同文件系统时，将并行地复制后再删除源目录
      * 
      * @param sourceDir 待移动目录
      * @param dir 目标目录
      * @exception IllegalArgumentException 源地址不存在或不是指向目录
      */
     public static final void move2Dir(Path sourceDir, Path dir) {
+        move2Dir(sourceDir, dir, DEFAULT_MOVE_PARALLELISM);
+    }
+    
+    /**
+     * 见{@link #move2Dir(Path, Path)}
+     * 
+     * @param parallelism 跨文件系统移动时，复制、删除的并行度
+     * @since 2026.10.18
+     */
+    public static final void move2Dir(Path sourceDir, Path dir, int parallelism) {
         validDirectory(sourceDir, true);
 
         FileUtils.createDirectoryIfNotExist(dir);
 
         Path dest = dir.resolve(sourceDir.getFileName());
-        FileUtils.createDirectoryIfNotExist(dest);
-
-        if (Files.isDirectory(sourceDir)) {
-            MoveFileVisitor fileVisitor = new MoveFileVisitor(sourceDir, dest);
-            try {
-                Files.walkFileTree(sourceDir, fileVisitor);
-            } catch (IOException e) {
-                throw new WrapperException(e);
-            }
-        } else {
-            try {
-                Files.move(sourceDir, dest, StandardCopyOption.REPLACE_EXISTING);
-            } catch (IOException e) {
-                throw new WrapperException(e);
-            }
+        if (Files.exists(dest) && !Files.isDirectory(dest)) {
+            throw new IllegalArgumentException("目标路径已存在且不是目录：" + dest);
         }
+        moveDirectory(sourceDir, dest, parallelism);
     }
     
     /**
      * 逐个文件地移动目录；可达到重命名的效果
      * 
+     * <p>2026.10.18 与{@link #move2Dir(Path, Path)}相同，将优先尝试直接重命名，跨文件系统时并行地复制后再删除
+     * 
      * @author DragonBoom
      * @since 2020.08.31
      * @param sourceDir 源目录
      * @param dest 目标目录，必须已存在
      */
     public static final void moveDirEach(Path sourceDir, Path dest) {
+        moveDirEach(sourceDir, dest, DEFAULT_MOVE_PARALLELISM);
+    }
+    
+    /**
+     * 见{@link #moveDirEach(Path, Path)}
+     * 
+     * @param parallelism 跨文件系统移动时，复制、删除的并行度
+     * @since 2026.10.18
+     */
+    public static final void moveDirEach(Path sourceDir, Path dest, int parallelism) {
         validDirectory(sourceDir, true);
         validDirectory(dest, true);
         if (sourceDir.equals(dest)) {
             throw new IllegalArgumentException("源路径与目标路径相同，无法移动");
         }
-
-        MoveFileVisitor fileVisitor = new MoveFileVisitor(sourceDir, dest);
+        moveDirectory(sourceDir, dest, parallelism);
+    }
+    
+    private static final int DEFAULT_MOVE_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    
+    /**
+     * 移动目录，目标目录可以不存在
+     * 
+     * <ol>
+     * <li>同一文件系统，且目标目录不存在或为空目录：直接重命名整个目录，只需一次系统调用
+     * <li>同一文件系统，目标目录非空：逐个合并，目标路径下不存在的子目录将被整个重命名
+     * <li>不同文件系统：并行地复制整个目录，全部复制成功后再并行地删除源目录；复制失败时将保留源目录
+     * </ol>
+     */
+    private static void moveDirectory(Path source, Path dest, int parallelism) {
         try {
-            Files.walkFileTree(sourceDir, fileVisitor);
+            if (isSameFileStore(source, dest)) {
+                try {
+                    // 对目录，REPLACE_EXISTING只会替换空目录，目标目录非空时将抛异常
+                    Files.move(source, dest, StandardCopyOption.REPLACE_EXISTING);
+                    log.debug("重命名目录 {} -> {}", source, dest);
+                    return;
+                } catch (DirectoryNotEmptyException e) {
+                    log.debug("目标目录非空，将合并目录 {} -> {}", source, dest);
+                }
+                Files.walkFileTree(source, new MoveFileVisitor(source, dest));
+            } else {
+                log.debug("跨文件系统移动目录 {} -> {}", source, dest);
+                FileOperationSummary copied = copyDirectory(source, dest, CopyDirectoryOptions.builder()
+                        .parallelism(parallelism)
+                        .preserveAttributes(true)
+                        .build());
+                throwFirstFailure(copied, "复制失败，将保留源目录：");
+                throwFirstFailure(clearDirectory(source, true, parallelism), "删除源目录失败：");
+            }
         } catch (IOException e) {
             throw new WrapperException(e);
         }
     }
+    
+    private static void throwFirstFailure(FileOperationSummary summary, String msg) {
+        if (summary.hasFailure()) {
+            Pair<Path, IOException> failure = summary.getFailures().get(0);
+            throw new WrapperException(msg + failure.getFirst() + "，共" + summary.getFailures().size() + "个失败的条目",
+                    failure.getSecond());
+        }
+    }
+    
+    /**
+     * 判断两个路径是否位于同一文件系统（FileStore）；目标路径不存在时，以其最近的已存在的上级目录判断
+     */
+    private static boolean isSameFileStore(Path source, Path dest) throws IOException {
+        Path existing = dest.toAbsolutePath();
+        while (existing != null && !Files.exists(existing)) {
+            existing = existing.getParent();
+        }
+        return existing != null && Files.getFileStore(source).equals(Files.getFileStore(existing));
+    }
 
     /**
      * 移动访问器，用于逐个移动目录下的文件
@@ -352,6 +515,16 @@ public class FileUtils {
             
             Path dest2 = dest.resolve(source.relativize(dir));
             if (!Files.exists(dest2)) {
+                if (!dir.equals(source)) {
+                    // 目标路径下不存在该目录，直接重命名整个子目录，无需逐个移动其中的文件
+                    try {
+                        Files.move(dir, dest2);
+                        log.debug("重命名文件夹 {} -> {}", dir, dest2);
+                        return FileVisitResult.SKIP_SUBTREE;
+                    } catch (IOException e) {
+                        log.debug("无法重命名文件夹 {}，将逐个移动：{}", dir, e.toString());
+                    }
+                }
                 log.debug("创建文件夹 {}", dest2);
                 FileUtils.createDirectoryIfNotExist(dest2);
             }
@@ -387,6 +560,39 @@ public class FileUtils {
 
     }
     
+    /**
+     * 复制目录，将把源目录下的所有条目复制到目标目录<b>中</b>（而不是目标目录下），目标目录不存在时将创建。
+     * 如：将/a复制到/b，/a/c将被复制为/b/c
+     * 
+     * <p>文件将以有界的并行度并发复制：大文件通过FileChannel.transferTo复制，小文件分批复制以减少调度开销；
+     * 可选择保留属性、增量复制（跳过大小与修改时间均相同的文件）。单个条目复制失败时不会中断，失败的条目将记录在返回结果中
+     * 
+     * @param sourceDir 源目录
+     * @param dest 目标目录；若位于源目录下，将跳过该目录
+     * @param options 复制参数
+     * @return 复制的文件数、字节数、跳过的文件数及失败的条目；返回时所有文件均已复制完成
+     * @exception IllegalArgumentException 源地址不存在或不是指向目录
+     * @since 2026.10.18
+     */
+    public static final FileOperationSummary copyDirectory(Path sourceDir, Path dest, CopyDirectoryOptions options) {
+        validDirectory(sourceDir, true);
+        Path source = sourceDir.toAbsolutePath().normalize();
+        Path target = dest.toAbsolutePath().normalize();
+        if (source.equals(target)) {
+            throw new IllegalArgumentException("源路径与目标路径相同，无法复制");
+        }
+        return DirectoryCopier.copy(source, target, options);
+    }
+    
+    /**
+     * 以默认参数复制目录，见{@link #copyDirectory(Path, Path, CopyDirectoryOptions)}
+     * 
+     * @since 2026.10.18
+     */
+    public static final FileOperationSummary copyDirectory(Path sourceDir, Path dest) {
+        return copyDirectory(sourceDir, dest, CopyDirectoryOptions.defaults());
+    }
+    
     /**
      * 批量处理给定目录下的所有目录（含给定目录本身）
      * 
@@ -401,6 +607,54 @@ public class FileUtils {
         }
     }
     
+    /**
+     * 并行地批量处理给定目录下的所有目录（含给定目录本身），立即返回
+     * 
+     * <p>由独立的线程遍历目录，处理函数将提交到有界的线程池中并行执行，适用于耗时的处理函数（重命名、生成缩略图、计算哈希等）。
+     * 只保证子树内的后序：目录的处理函数在其下所有子目录处理完成后才执行
+     * 
+     * @param dir 起始目录
+     * @param function 处理函数，将被并发调用
+     * @param parallelism 同时执行处理函数的线程数
+     * @return 全部处理完成后结束；若遍历或处理时有异常，将以WrapperException结束，所有异常均可通过getSuppressed获取
+     * @exception IllegalArgumentException 源地址不存在或不是指向目录
+     * @since 2026.10.18
+     */
+    public static CompletableFuture<Void> forEachDirectory(Path dir, Consumer<Path> function, int parallelism) {
+        validDirectory(dir, true);
+        return AsyncFileWalker.walk(dir, null, function, parallelism);
+    }
+    
+    /**
+     * 批量处理给定目录下的所有文件（含子目录下的文件）
+     * 
+     * @exception IllegalArgumentException 源地址不存在或不是指向目录
+     * @since 2026.10.18
+     */
+    public static void forEachFile(Path dir, Consumer<Path> function) {
+        validDirectory(dir, true);
+        try {
+            Files.walkFileTree(dir, new FunctionFileVisitor(function, null));
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        }
+    }
+    
+    /**
+     * 并行地批量处理给定目录下的所有文件（含子目录下的文件），立即返回。不保证处理的顺序
+     * 
+     * @param dir 起始目录
+     * @param function 处理函数，将被并发调用
+     * @param parallelism 同时执行处理函数的线程数
+     * @return 全部处理完成后结束；若遍历或处理时有异常，将以WrapperException结束，所有异常均可通过getSuppressed获取
+     * @exception IllegalArgumentException 源地址不存在或不是指向目录
+     * @since 2026.10.18
+     */
+    public static CompletableFuture<Void> forEachFile(Path dir, Consumer<Path> function, int parallelism) {
+        validDirectory(dir, true);
+        return AsyncFileWalker.walk(dir, function, null, parallelism);
+    }
+    
     @AllArgsConstructor
     private static final class FunctionFileVisitor extends SimpleFileVisitor<Path> {
         private Consumer<Path> fileFun;
@@ -470,44 +724,66 @@ public class FileUtils {
     /**
      * 从给定文件夹开始，查找文件夹。将基于宽度/广度优先(BFS Breadth-First-Search)进行搜索。
      * 
+     * <p>2026.10.18 修复了从不进行搜索的问题；同一层的目录将并行地列出，不追踪符号链接。
+     * 需要在同一根目录下重复查找时，可使用{@link DirectoryNameIndex}
+     * 
      * @param path 起始路径
      * @param directoryName 所查找的文件夹名
+     * @return 深度最浅的匹配目录；找不到时返回null
      */
-    @SuppressWarnings("unchecked")
     public static final Path findDirectory(Path path, String directoryName) {
-        validDirectory(path, true);
-        LinkedList<Path> list = new LinkedList<>();
-        LinkedList<Path> nextList = new LinkedList<>();
-        list.add(path);
-        while (list.isEmpty()) {
-            try {
-                Iterator<Path> iterator = list.iterator();
-                while (iterator.hasNext()) {
-                    Path parentPath = iterator.next();
-                    
-                    try (DirectoryStream<Path> dirStream = Files.newDirectoryStream(parentPath, Files::isDirectory)) {
-                        for (Path subPath : dirStream) {
-                            if (subPath.getFileName().toString().equals(directoryName)) {
-                                return subPath;
-                            }
-                            nextList.add(subPath);
-                        }
-                        
-                    }
-                    iterator.remove();
-                }
-                list = (LinkedList<Path>) nextList.clone();
-                nextList.clear();
-            } catch (IOException e) {
-                throw new WrapperException(e);
-            }
+        return findDirectory(path, directoryName, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * 从给定文件夹开始，基于BFS查找文件夹，同一层的目录将并行地列出
+     * 
+     * @param path 起始路径
+     * @param directoryName 所查找的文件夹名
+     * @param maxDepth 最大深度，1表示只查找直接子目录
+     * @param options 可指定FileVisitOption.FOLLOW_LINKS以追踪符号链接
+     * @return 深度最浅的匹配目录；找不到时返回null
+     * @since 2026.10.18
+     */
+    public static final Path findDirectory(Path path, String directoryName, int maxDepth, FileVisitOption... options) {
+        try (Stream<Path> stream = findDirectories(path, 
+                p -> p.getFileName().toString().equals(directoryName), maxDepth, options)) {
+            return stream.findFirst().orElse(null);
         }
-        // till not found...
-        return null;
     }
     
     /**
-     * Files.readAllBytes的不抛异常版本
+     * 从给定文件夹开始，基于BFS查找所有满足条件的文件夹（不含给定文件夹本身）。
+     * 
+     * <p>返回的流是惰性的：每当需要更多结果时才会搜索下一层，同一层的目录将并行地列出；因此，找到所需结果后即可停止搜索。
+     * 结果按深度由浅到深排列。无权访问的目录将被跳过
+     * 
+     * @param path 起始路径
+     * @param predicate 判断目录是否满足条件
+     * @param maxDepth 最大深度，1表示只查找直接子目录
+     * @param options 可指定FileVisitOption.FOLLOW_LINKS以追踪符号链接；追踪时将避免重复访问同一目录
+     * @since 2026.10.18
+     */
+    public static final Stream<Path> findDirectories(Path path, Predicate<Path> predicate, int maxDepth,
+            FileVisitOption... options) {
+        validDirectory(path, true);
+        DirectoryFinder finder = new DirectoryFinder(path, maxDepth, options);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(finder, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .flatMap(List::stream)
+                .filter(predicate);
+    }
+    
+    /**
+     * 见{@link #findDirectories(Path, Predicate, int, FileVisitOption...)}，不限深度，不追踪符号链接
+     * 
+     * @since 2026.10.18
+     */
+    public static final Stream<Path> findDirectories(Path path, Predicate<Path> predicate) {
+        return findDirectories(path, predicate, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Files.readAllBytes的不抛异常版本。将整个文件读入堆中，大文件请使用{@link #readBuffer(Path)}或{@link #readChunks(Path, int)}
      */
     public static final byte[] readAllBytes(Path path) {
         try {
@@ -517,6 +793,84 @@ public class FileUtils {
         }
     }
     
+    /** {@link #readBuffer(Path)}使用内存映射的默认阈值 */
+    public static final long DEFAULT_MMAP_THRESHOLD = 1024 * 1024;
+    
+    /**
+     * 读取文件的全部内容，大于{@link #DEFAULT_MMAP_THRESHOLD}的文件将使用内存映射
+     * 
+     * @see #readBuffer(Path, long)
+     * @since 2026.10.18
+     */
+    public static ByteBuffer readBuffer(Path path) {
+        return readBuffer(path, DEFAULT_MMAP_THRESHOLD);
+    }
+    
+    /**
+     * 读取文件的全部内容。不小于阈值的文件将以只读的方式映射到内存（MappedByteBuffer），不占用堆内存，
+     * 内容由操作系统按需加载；小文件直接读取到堆中，避免映射的开销
+     * 
+     * <p>映射的缓存在被GC回收前将一直占用文件（Windows下无法删除该文件）；超过2GB的文件无法映射为一个缓存，
+     * 需使用{@link #readChunks(Path, int)}
+     * 
+     * @param mmapThreshold 使用内存映射的最小文件大小
+     * @return 只读的缓存，position为0，limit为文件大小
+     * @since 2026.10.18
+     */
+    public static ByteBuffer readBuffer(Path path, long mmapThreshold) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("文件超过2GB，请使用readChunks读取：" + path);
+            }
+            if (size >= mmapThreshold) {
+                return channel.map(MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // 读满为止
+            }
+            buffer.flip();
+            return buffer.asReadOnlyBuffer();
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        }
+    }
+    
+    /**
+     * 以固定大小的块顺序读取文件，块的缓存来自直接缓存池，内存占用只与块大小及同时持有的块数有关。返回的读取器需要关闭
+     * 
+     * @param chunkSize 块大小
+     * @since 2026.10.18
+     */
+    public static ChunkedFileReader readChunks(Path path, int chunkSize) {
+        try {
+            return new ChunkedFileReader(path, chunkSize);
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        }
+    }
+    
+    /**
+     * 并行地查找目录（递归）下所有文件的内容，返回的流需要关闭，关闭后将停止查找
+     * 
+     * <p>文件以内存映射的方式读取，普通字符串通过Boyer-Moore-Horspool算法直接在字节上查找，不解码整个文件；
+     * 正则表达式（或忽略大小写时）将逐行解码后匹配。默认跳过二进制文件，不追踪符号链接
+     * 
+     * <p>查找在后台线程中进行，匹配结果通过有界队列逐个返回：同一文件的匹配按偏移量排序，不同文件的匹配之间不保证顺序。
+     * 无法读取的文件将被跳过；文件过滤条件等抛出的异常将在已找到的结果取完后抛出
+     * 
+     * @param root 根目录
+     * @param pattern 查找的内容，普通字符串或正则表达式
+     * @since 2026.10.18
+     */
+    public static Stream<SearchMatch> search(Path root, String pattern, SearchOptions options) {
+        validDirectory(root, true);
+        ContentSearcher searcher = new ContentSearcher(root, pattern, options);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(searcher, Spliterator.NONNULL), false)
+                .onClose(searcher::close);
+    }
+    
     private static final String TMP_PREFIX = "FileUtils-";// len must > 3 
     
     public static File createTmpFile(String tmpDir) {
@@ -594,7 +948,7 @@ public class FileUtils {
     
     /**
      * 判断文件是否为图片。只通过后缀是否为"jpg", "bmp", "gif", "png", "jpeg", "wbmp"进行判断（不区分大小写），
-     * 不会实际解析文件内容去判断
+     * 不会实际解析文件内容去判断；需要根据内容判断时使用{@link #detectImage(Path)}
      * 
      * @return
      */
@@ -604,34 +958,113 @@ public class FileUtils {
                 .orElse(false);
     }
     
-    @SneakyThrows
+    /**
+     * 没有魔数、无法通过文件头识别的图片格式的后缀，小写
+     */
+    private static final ImmutableSet<String> SUFFIX_ONLY_IMAGE_SUFFIXES = ImmutableSet.of("wbmp");
+    
+    /**
+     * 2026.10.18 改为通过文件头判断，与{@link #containsImage(Path)}一致；没有魔数的格式（WBMP）仍按后缀判断，
+     * 因此只含有.wbmp文件的目录与之前一样视为含有图片
+     */
     @Deprecated
     public static boolean isContainImg(Path dir) {
         validDirectory(dir, true);
-        try (Stream<Path> stream = Files.list(dir)) {
-            return stream.anyMatch(FileUtils::isImage);
-        }
+        return IMAGE_DETECTOR.containsImage(dir, path -> Optional.ofNullable(getExtension(path.toString()))
+                .map(suffix -> SUFFIX_ONLY_IMAGE_SUFFIXES.contains(suffix.toLowerCase()))
+                .orElse(false));
     }
     
-    private static final Integer DEFAULT_ALLOCATE_BUFFER_SIZE = 2048;
+    private static final ImageDetector IMAGE_DETECTOR = new ImageDetector();
     
     /**
-     * 复制Channel的内容，将不会关闭任何通道！将从source的起始位置开始复制(position)，复制到target的起始位置(position)。
+     * 通过文件头（魔数）识别图片格式，只读取文件开头的少量字节，与后缀无关。
+     * 需要反复检测同一批文件时，可使用启用了缓存的{@link ImageDetector}
+     * 
+     * @return 不是文件或不是支持的图片格式时返回空
+     * @since 2026.10.18
+     */
+    public static Optional<ImageFormat> detectImage(Path path) {
+        return IMAGE_DETECTOR.detect(path);
+    }
+    
+    /**
+     * 判断目录下（不含子目录）是否含有图片文件，通过文件头判断，并行检测，检测到第一个图片后即停止；
+     * 没有魔数的格式（如WBMP）无法识别
+     * 
+     * @since 2026.10.18
+     */
+    public static boolean containsImage(Path dir) {
+        validDirectory(dir, true);
+        return IMAGE_DETECTOR.containsImage(dir);
+    }
+    
+    /**
+     * 复制Channel的内容，将不会关闭任何通道！将从source的当前位置开始复制(position)，复制到target的当前位置(position)。
      * 
      * <p>该方法用于需要手动操作流复制的场景，可根据需要修改该方法（以增加参数为主）
      * 
+     * <p>2026.10.18 任一端为FileChannel时，将通过transferTo/transferFrom由操作系统直接复制（零拷贝）；
+     * 其他通道通过缓存池中的缓存复制，不再每次分配新的缓存
+     * 
      * @param source source
      * @param target target
-     * @param bufferSize 复制时所使用的缓存的大小，可为null，null时取默认值
+     * @param bufferSize 复制时所使用的缓存的大小，可为null，null时将根据读取量自适应地调整缓存大小
      * @param speedProcessFun 操作<数据传输量，实际间隔>的函数，将从该函数结束后才开始统计下一次间隔的时间；可为空
      * @param speedProcessMinInterval 执行的操作数据传输量的函数的最低间隔，单位为毫秒；可为空
      */
     public static void copyChannel(ReadableByteChannel source, WritableByteChannel target, @Nullable Integer bufferSize,
             @Nullable BiConsumer<Long, Long> speedProcessFun, @Nullable Long speedProcessMinInterval) {
-        if (bufferSize == null) {
-            bufferSize = DEFAULT_ALLOCATE_BUFFER_SIZE;
+        copy(source, target, ChannelCopyOptions.builder()
+                .bufferSize(bufferSize)
+                .speedProcessFun(speedProcessFun)
+                .speedProcessMinInterval(speedProcessMinInterval)
+                .build());
+    }
+    
+    /**
+     * 以流水线的方式复制Channel的内容，将不会关闭任何通道！由独立的读线程将数据读入由多个缓存组成的环中，当前线程同时将其写入目标通道。
+     * 
+     * <p>适用于源通道较慢（如网络）而目标为磁盘的场景：读、写不再相互等待，耗时接近于两者中较慢的一方，而不是两者之和。
+     * 对两端均为本地文件的场景，应使用{@link #copyChannel(ReadableByteChannel, WritableByteChannel, Integer, BiConsumer, Long)}
+     * 
+     * @param source source
+     * @param target target
+     * @param bufferSize 每个缓存的大小，可为null，null时取默认值（64KB）
+     * @param bufferCount 缓存的数量，至少为2
+     * @param speedProcessFun 操作<数据传输量，实际间隔>的函数，将在写线程（当前线程）中执行；可为空
+     * @param speedProcessMinInterval 执行的操作数据传输量的函数的最低间隔，单位为毫秒；可为空
+     * @since 2026.10.18
+     */
+    public static void copyChannel(ReadableByteChannel source, WritableByteChannel target, @Nullable Integer bufferSize,
+            int bufferCount, @Nullable BiConsumer<Long, Long> speedProcessFun, @Nullable Long speedProcessMinInterval) {
+        if (bufferCount < 2) {
+            throw new IllegalArgumentException("缓存数量至少为2：" + bufferCount);
         }
-        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        copy(source, target, ChannelCopyOptions.builder()
+                .bufferSize(bufferSize)
+                .bufferCount(bufferCount)
+                .speedProcessFun(speedProcessFun)
+                .speedProcessMinInterval(speedProcessMinInterval)
+                .build());
+    }
+    
+    /** 流水线式复制时，每个缓存的默认大小 */
+    private static final int DEFAULT_PIPELINE_BUFFER_SIZE = 64 << 10;
+    
+    /**
+     * 复制Channel的内容，将不会关闭任何通道！与copyChannel相同，但可通过参数选择流水线复制、限速及实时统计。
+     * 
+     * <p>限速：多个复制任务可共享同一个{@link BandwidthLimiter}以限制总带宽，避免批量复制占满共享磁盘的IO；
+     * 限速器的速率可在复制过程中调整
+     * 
+     * @param source source
+     * @param target target
+     * @param options 复制参数
+     * @return 复制的字节数
+     * @since 2026.10.18
+     */
+    public static long copy(ReadableByteChannel source, WritableByteChannel target, ChannelCopyOptions options) {
         // 校验：
         // a. 是否已关闭
         if (!source.isOpen()) {
@@ -641,25 +1074,14 @@ public class FileUtils {
             throw new IllegalArgumentException(target + " is closed!");
         }
         // 复制字节
+        ChannelCopier.TransferRecorder recorder = new ChannelCopier.TransferRecorder(options);
         try {
-            long lastMillis = System.currentTimeMillis();
-            long size = 0;
-            while (source.read(buffer) != -1) {
-                buffer.flip();
-                target.write(buffer);
-                int limit = buffer.limit();
-                
-                if (speedProcessFun != null) {
-                    long cost = System.currentTimeMillis() - lastMillis;// 本次处理时间
-                    size += limit;
-                    if (cost >= speedProcessMinInterval) {
-                        speedProcessFun.accept(size, cost);
-                        lastMillis = System.currentTimeMillis();// 
-                        size = 0;
-                    }
-                }
-                
-                buffer.clear();
+            if (options.isPipelined()) {
+                return ChannelCopier.copyPipelined(source, target, 
+                        Optional.ofNullable(options.getBufferSize()).orElse(DEFAULT_PIPELINE_BUFFER_SIZE),
+                        options.getBufferCount(), recorder);
+            } else {
+                return ChannelCopier.copy(source, target, options.getBufferSize(), recorder);
             }
         } catch (IOException e) {
             throw new WrapperException(e);
@@ -728,31 +1150,21 @@ public class FileUtils {
         return Files.exists(path) && !Files.isDirectory(path);
     }
     
-    /**
-     * 校验数字字符串的长度是否超过整型最大值（Long.MAX_VALUE）的长度，以此粗略判断能否将数字字符串转化为整型（Long）
-     * 
-     * @param numberStrs 所有字符均为数字的字符串的数组
-     * @since 2021.09.23
-     */
-    private static void checkNumberStrLen(String... numberStrs) {
-        for (String numberStr : numberStrs) {
-            if (numberStr.length() > Long.toString(Long.MAX_VALUE).length()) {
-                throw new IllegalArgumentException("数字字符串过长：" + numberStr);
-            }
-        }
-    }
-    
     /**
      * - 模仿windows的排序逻辑：
      * <li>1. 跳过相同的非数字前缀
      * <li>2. 若发现非数字不同，直接用该字符比较（注意文件名后缀也会参与比较）
      * <li>3. 若存在数字，找出完整数字
-     * <li>3.1. 若完整数字相同，跳过后继续循环
-     * <li>3.2. 若完整数字不同，比较数字（数字过大时只会抛异常，无法比较）
+     * <li>3.1. 若完整数字的值相同（如01与1），跳过后继续循环
+     * <li>3.2. 若完整数字的值不同，比较数字（支持任意长度的数字）
      * <li>4. 若一字符串是另一字符串的前缀，则前缀字符串较小
+     * <li>5. 若按以上规则相同（只有前导零不同，如a001b与a1b），则第一个前导零数量不同的数字中，前导零少的较小；
+     * 因此只有相同的字符串才返回0，与equals一致
      * 
      * <p>通过抛特定异常来传递无法解析文件名的信息；比较的返回值只有-1、0、1，因为即使能返回具体数值其意义也是不确定的
      * 
+     * <p>2026.10.18 改为直接在原字符串上比较数字：跳过前导零后，先比较有效数字的位数，再逐位比较，
+     * 比较过程中不会创建任何对象，也不会再因数字过长而无法比较；两字符串的数字位数不同时也能正确地继续比较后续字符
      * 
      * @author wzh
      * @since 2020.09.06
@@ -770,93 +1182,91 @@ public class FileUtils {
                 log.warn("比较参数不能为空");
                 throw new CantCompareException("比较参数不能为空");
             }
-            // 这里不该直接用equals、startsWith比较，而是应利用之后的遍历判断情况，以避免重复遍历两字符串
-            int lenDiffer = name1.length() - name2.length();
-            int minLen = lenDiffer >= 0 ? name2.length() : name1.length();
-            char[] chars1 = name1.toCharArray();
-            char[] chars2 = name2.toCharArray();
-
-            for (int i = 0; i < minLen; i++) {
+            int len1 = name1.length();
+            int len2 = name2.length();
+            // 两字符串中的数字位数可能不同，因此需分别记录下标
+            int i = 0;
+            int j = 0;
+            // 5. 第一个只有前导零数量不同的数字的比较结果，其余规则均相同时使用
+            int zeroOrder = 0;
+            while (i < len1 && j < len2) {
                 char c1 = name1.charAt(i);
-                char c2 = name2.charAt(i);
+                char c2 = name2.charAt(j);
                 if (!isNumber(c1) || !isNumber(c2)) {
                     // 两个字符不全是数字
-                    if (c1 == c2) {
-                       // 1. 两个字符不全是数字，且相同；跳过该字符，继续遍历
-                        continue;
-                    } else {
+                    if (c1 != c2) {
                         // 2. 两个字符不全是数字，且不同；则这两个字符的顺序就是文件名顺序
                         return c1 > c2 ? 1 : -1;
                     }
-                } else {
-                    // 3. 两个字符均为数字，可能相同也可能不同，需要继续遍历以找出完整数字才能作比较
-                    // i = 数字开始下标
-                    // 2022.02.28：发现这里会有无限循环
-                    String number1 = getSerialNumberBeginAt(chars1, i);
-                    String number2 = getSerialNumberBeginAt(chars2, i);
-                    if (number1.equals(number2)) {
-                        // 3.1. 数字字符串相同，跳过
-                        i += number1.length() - 1;// 使i指向连续数字最后一个字符]
-                        continue;
-                    } else {
-                        // 3.2. 字符串不同，转化为数字后比较
-                        // 2022.02.28 ：由于可能会存在000和00000的字符串，因此需考虑返回0（之前没有）
-                        try {
-                            long l1 = Long.parseLong(number1);
-                            long l2 = Long.parseLong(number2);
-                            return l1 == l2 ? 0 : l1 > l2 ? 1 : -1;
-                        } catch (NumberFormatException e) {
-                            // 2021.09.23 添加字符串长度的检验 2021.12.14 当发生异常才校验，以提高占大多数的无异常情况的效率
-                            checkNumberStrLen(number1, number2);
-                            throw e;
-                        }
+                    // 1. 两个字符不全是数字，且相同；跳过该字符，继续遍历
+                    i++;
+                    j++;
+                    continue;
+                }
+                // 3. 两个字符均为数字，找出完整数字后比较
+                int end1 = numberEnd(name1, i);
+                int end2 = numberEnd(name2, j);
+                // 跳过前导零
+                int begin1 = skipZero(name1, i, end1);
+                int begin2 = skipZero(name2, j, end2);
+                // 3.2. 有效数字位数多的数字较大
+                int digits1 = end1 - begin1;
+                int digits2 = end2 - begin2;
+                if (digits1 != digits2) {
+                    return digits1 > digits2 ? 1 : -1;
+                }
+                // 3.2. 位数相同，逐位比较
+                for (int k = 0; k < digits1; k++) {
+                    char d1 = name1.charAt(begin1 + k);
+                    char d2 = name2.charAt(begin2 + k);
+                    if (d1 != d2) {
+                        return d1 > d2 ? 1 : -1;
                     }
                 }
+                // 3.1. 数字相同，跳过
+                int zeros1 = begin1 - i;
+                int zeros2 = begin2 - j;
+                if (zeroOrder == 0 && zeros1 != zeros2) {
+                    zeroOrder = zeros1 > zeros2 ? 1 : -1;
+                }
+                i = end1;
+                j = end2;
             }
-            if (lenDiffer == 0) {
-                // 两字符相同
-                return 0;
+            boolean end1 = i >= len1;
+            boolean end2 = j >= len2;
+            if (end1 && end2) {
+                // 两字符串相同，或只有前导零不同
+                return zeroOrder;
             } else {
                 // 4. 一字符串是另一字符串的前缀，前缀字符串较小
-                return lenDiffer > 0 ? 1 : -1;
+                return end1 ? -1 : 1;
             }
         }
-
         
-        /** 判断字符是否为数字 */
-        private boolean isNumber(char c) {
-            switch(c) {
-            case '0': case '1':case '2':case '3':case '4':case '5':case '6':case '7':case '8':case '9': return true;
-            default: return false;
+        /** 获取从指定下标开始的连续数字的结束下标（不含） */
+        private static int numberEnd(String str, int beginIndex) {
+            int i = beginIndex;
+            while (i < str.length() && isNumber(str.charAt(i))) {
+                i++;
             }
+            return i;
         }
         
-        /**
-         * 从指定下标开始，获取连续数字字符串
-         * 
-         * @param str
-         * @param beginIndex 必须小于chars.length，否则将返回空字符串
-         * @return 不会抛异常或返回null，最多返回空字符串
-         * @author DragonBoom
-         * @since 2020.09.12
-         */
-        private String getSerialNumberBeginAt(char[] chars, int beginIndex) {
-            if (chars == null || chars.length == 0) {
-                return "";
-            }
-            // 只遍历数字，获取最后一个数字的下标
-            StringBuilder sb = new StringBuilder();
+        /** 跳过前导零，返回第一个非零数字的下标；数字全为零时返回结束下标 */
+        private static int skipZero(String str, int beginIndex, int endIndex) {
             int i = beginIndex;
-            while (i < chars.length) {
-                char c = chars[i];
-                if (isNumber(c)) {
-                    sb.append(c);
-                    i++;
-                } else {
-                    break;
-                }
+            while (i < endIndex && str.charAt(i) == '0') {
+                i++;
+            }
+            return i;
+        }
+
+        /** 判断字符是否为数字 */
+        static boolean isNumber(char c) {
+            switch(c) {
+            case '0': case '1':case '2':case '3':case '4':case '5':case '6':case '7':case '8':case '9': return true;
+            default: return false;
             }
-            return sb.toString();
         }
         
         /** 抛出该异常表示无法比较 */
@@ -868,68 +1278,252 @@ public class FileUtils {
         }
     }
     
+    /**
+     * 按文件名对路径进行自然排序，结果与{@link FileNameComparator}一致，将直接修改给定列表
+     * 
+     * <p>先并行地为每个文件名生成{@link FileNameSortKey}，再对排序键并行排序；
+     * 每个文件名只需解析一次，适用于对大量文件排序。排序是稳定的
+     * 
+     * @param paths 所有路径的文件名都不能为空
+     * @since 2026.10.18
+     */
+    @SuppressWarnings("unchecked")
+    public static void sortNaturally(List<Path> paths) {
+        Pair<FileNameSortKey, Path>[] keyed = paths.parallelStream()
+                .map(path -> Pair.of(FileNameSortKey.of(path.getFileName().toString()), path))
+                .toArray(Pair[]::new);
+        Arrays.parallelSort(keyed, Comparator.comparing(Pair::getFirst));
+        ListIterator<Path> iterator = paths.listIterator();
+        for (Pair<FileNameSortKey, Path> pair : keyed) {
+            iterator.next();
+            iterator.set(pair.getSecond());
+        }
+    }
+    
     /**
      * 读取格式含bom的文件。BOM的作用为标记unicode的格式（判断是utf-16还是utf-8），无法用Java提供的API获取该类型的文件
      * 
      * <p>更多可见：https://stackoverflow.com/questions/4897876/reading-utf-8-bom-marker
      * 
+     * <p>2026.10.18 改为基于{@link #lines(Path)}实现，确保文件被关闭；大文件请直接使用{@link #lines(Path)}，无需将所有行读入内存
+     * 
      * @param path
      * @param options
      * @return 若文件不含bom位返回null
      * @author DragonBoom
      * @since 2020.09.13
      */
-    @SneakyThrows
     public static List<String> readAllLinesForBOM(Path path, OpenOption... options) {
-        LinkedList<String> result = new LinkedList<>();
-        InputStream inputStream = Files.newInputStream(path, StandardOpenOption.READ);
-        // 使用Apache的BOMInputStream处理
-        try (BOMInputStream bOMInputStream = new BOMInputStream(inputStream)) {
-            ByteOrderMark bom = bOMInputStream.getBOM();
-            if (bom == null) {
-                return null;
-            }
-            BufferedReader reader = new BufferedReader(new InputStreamReader(bOMInputStream, bom.getCharsetName()));
-            //use reader
-            String line = null;
-            while ((line = reader.readLine()) != null) {
-                result.add(line);
-            }
+        LineSpliterator spliterator = openLines(path, StandardCharsets.UTF_8);
+        if (!spliterator.isBom()) {
+            closeLines(spliterator);
+            return null;
+        }
+        try (Stream<String> lines = linesStream(spliterator)) {
+            return lines.collect(Collectors.toList());
+        }
+    }
+    
+    /**
+     * 惰性地按行读取文本文件，不含BOM时以UTF-8解码，详见{@link #lines(Path, Charset)}
+     * 
+     * @since 2026.10.18
+     */
+    public static Stream<String> lines(Path path) {
+        return lines(path, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * 惰性地按行读取文本文件，返回的流需要关闭（如使用try-with-resources）以释放文件
+     * 
+     * <p>将根据文件开头的BOM识别UTF-8、UTF-16、UTF-32编码，BOM不会出现在结果中；不含BOM时使用给定的编码。
+     * 文件以内存映射的窗口读取，只在产出行时解码，内存占用与文件大小无关。
+     * 
+     * <p>只以\n作为行分隔符，行尾的\r将被去除（即支持\n与\r\n）。
+     * 返回的流可调用parallel()并行处理，将在行的边界处拆分文件
+     * 
+     * @param defaultCharset 不含BOM时使用的编码，需为ASCII兼容编码或UTF-16/UTF-32
+     * @since 2026.10.18
+     */
+    public static Stream<String> lines(Path path, Charset defaultCharset) {
+        return linesStream(openLines(path, defaultCharset));
+    }
+    
+    private static LineSpliterator openLines(Path path, Charset defaultCharset) {
+        try {
+            return LineSpliterator.open(path, defaultCharset);
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        }
+    }
+    
+    private static Stream<String> linesStream(LineSpliterator spliterator) {
+        return StreamSupport.stream(spliterator, false).onClose(() -> closeLines(spliterator));
+    }
+    
+    private static void closeLines(LineSpliterator spliterator) {
+        try {
+            spliterator.close();
+        } catch (IOException e) {
+            throw new WrapperException(e);
         }
-        return result;
     }
     
     /**
      * 获取给定目录的大小。通过目录下的遍历所有文件实现
      * 
+     * <p>2026.10.18 改为基于walkFileTree实现，直接使用遍历时读取到的文件属性，每个条目只需读取一次属性；
+     * 只统计文件（含链接本身）的大小，不再统计目录条目本身的大小
+     * 
      * @param path
      * @param recursion 是否递归统计子目录的大小
      * @return 单位为字节
      * @author DragonBoom
      * @since 2020.09.16
      */
-    @SneakyThrows
     public static long dirSize(Path path, boolean recursion) {
         validDirectory(path, true);
         
-        try (Stream<Path> stream = recursion ? Files.walk(path) : Files.list(path)) {
-            return stream
-                    // 文件夹的size为0，且isDirectory与size都是通过读文件属性实现，该过滤并不能提高效率
-                    // .filter(p -> !Files.isDirectory(path))
-                    .map(file -> {
-                        try {
-                            return Files.size(file);
-                        } catch (IOException e) {
-                            throw new WrapperException(e);
+        LongAdder size = new LongAdder();
+        try {
+            Files.walkFileTree(path, EnumSet.noneOf(FileVisitOption.class), recursion ? Integer.MAX_VALUE : 1,
+                    new SimpleFileVisitor<Path>() {
+                        @Override
+                        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                            // 达到最大深度的目录也将通过该方法访问
+                            if (!attrs.isDirectory()) {
+                                size.add(attrs.size());
+                            }
+                            return FileVisitResult.CONTINUE;
                         }
-                    })
-                    .reduce(0l, (total, next) -> total + next);// 第一个参数是累加的起始值
+                    });
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        }
+        return size.sum();
+    }
+    
+    /**
+     * 获取给定目录的大小，可并行地统计，并可使用缓存
+     * 
+     * <p>每个目录将作为一个ForkJoin任务统计，各子目录并行统计。使用缓存时，修改时间未变的目录将直接使用缓存的结果，
+     * 只需读取一次目录本身的属性；适用于重复统计变化很少的目录，缓存的局限见{@link DirSizeCache}
+     * 
+     * @param path
+     * @param recursion 是否递归统计子目录的大小
+     * @param parallelism 并行度
+     * @param cache 可为空，为空时不使用缓存
+     * @return 单位为字节
+     * @since 2026.10.18
+     */
+    public static long dirSize(Path path, boolean recursion, int parallelism, @Nullable DirSizeCache cache) {
+        validDirectory(path, true);
+        return invoke(new DirSizeTask(path, recursion, cache), parallelism);
+    }
+    
+    /**
+     * 统计单个目录大小的任务：统计目录下的文件，并为每个子目录派生子任务
+     */
+    @AllArgsConstructor
+    private static class DirSizeTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+        private final Path dir;
+        private final boolean recursion;
+        private final DirSizeCache cache;
+
+        @Override
+        protected Long compute() {
+            DirSizeCache.Entry entry = null;
+            try {
+                entry = cache == null ? scan(null) : scanWithCache();
+            } catch (IOException | DirectoryIteratorException e) {
+                throw new WrapperException(e);
+            }
+            long size = entry.getFilesSize();
+            if (recursion) {
+                List<DirSizeTask> subTasks = new ArrayList<>(entry.getSubDirectories().size());
+                for (Path subDirectory : entry.getSubDirectories()) {
+                    DirSizeTask subTask = new DirSizeTask(subDirectory, true, cache);
+                    subTask.fork();
+                    subTasks.add(subTask);
+                }
+                for (DirSizeTask subTask : subTasks) {
+                    size += subTask.join();
+                }
+            }
+            return size;
+        }
+        
+        private DirSizeCache.Entry scanWithCache() throws IOException {
+            FileTime lastModifiedTime = Files.getLastModifiedTime(dir, LinkOption.NOFOLLOW_LINKS);
+            DirSizeCache.Entry entry = cache.get(dir, lastModifiedTime);
+            if (entry == null) {
+                entry = scan(lastModifiedTime);
+                cache.put(dir, entry);
+            }
+            return entry;
+        }
+        
+        private DirSizeCache.Entry scan(FileTime lastModifiedTime) throws IOException {
+            long filesSize = 0;
+            List<Path> subDirectories = new ArrayList<>();
+            long scannedAt = System.currentTimeMillis();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path entry : stream) {
+                    BasicFileAttributes attrs = Files.readAttributes(entry, BasicFileAttributes.class, 
+                            LinkOption.NOFOLLOW_LINKS);
+                    if (attrs.isDirectory()) {
+                        subDirectories.add(entry);
+                    } else {
+                        filesSize += attrs.size();
+                    }
+                }
+            }
+            return new DirSizeCache.Entry(lastModifiedTime, scannedAt, filesSize, subDirectories);
         }
     }
     
+    /**
+     * 按文件属性对路径排名，值最大的k个路径为胜者，其余为败者；可用于只保留最新的k个备份等场景
+     * 
+     * <p>在指定并行度的线程池中并发读取各路径的属性，并以大小为k的最小堆一次遍历得出结果，不会对所有路径排序
+     * 
+     * @param paths 路径，读取属性时将追踪符号链接
+     * @param getter 从文件属性中获取比较值
+     * @param comparator 比较值的比较器，值越大排名越前
+     * @param k 胜者的数量
+     * @param parallelism 同时读取属性的线程数，读取属性以IO为主，可大于CPU核数
+     * @throws WrapperException 读取任一路径的属性失败时
+     * @since 2026.10.18
+     */
+    public static <T> PathRanking rankPaths(Collection<Path> paths, Function<BasicFileAttributes, T> getter,
+            Comparator<? super T> comparator, int k, int parallelism) {
+        Collector<Pair<Path, T>, ?, PathRanking> collector = PathRanking.collector(comparator, k);
+        // 在新建的线程池中执行并行流，流的并行任务将由该线程池执行
+        return invoke(ForkJoinTask.adapt(() -> paths.parallelStream()
+                .map(path -> {
+                    try {
+                        return Pair.of(path, getter.apply(Files.readAttributes(path, BasicFileAttributes.class)));
+                    } catch (IOException e) {
+                        throw new WrapperException(e);
+                    }
+                })
+                .collect(collector)), parallelism);
+    }
+    
+    /**
+     * 见{@link #rankPaths(Collection, Function, Comparator, int, int)}，并行度为CPU核数
+     * 
+     * @since 2026.10.18
+     */
+    public static <T> PathRanking rankPaths(Collection<Path> paths, Function<BasicFileAttributes, T> getter,
+            Comparator<? super T> comparator, int k) {
+        return rankPaths(paths, getter, comparator, k, Runtime.getRuntime().availableProcessors());
+    }
     
     /**
-     * 通过比较指定文件的属性，找出不是最大的路径；可用于找出不是最大或不是最新的文件
+     * 通过比较指定文件的属性，找出不是最大的路径；可用于找出不是最大或不是最新的文件。
+     * 不需要阈值时，可使用并行的{@link #rankPaths(Collection, Function, Comparator, int)}
      * 
      * @param <T> 必须实现Comparable接口，即提供compareTo(T)方法
      * @param paths
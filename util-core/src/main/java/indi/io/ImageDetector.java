@@ -0,0 +1,247 @@
+package indi.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import javax.annotation.Nullable;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import indi.constant.ImageFormat;
+import indi.exception.WrapperException;
+import lombok.AllArgsConstructor;
+
+/**
+ * 通过文件头（魔数）识别图片格式，只读取文件开头的少量字节，与文件后缀无关。线程安全
+ *
+ * <p>支持JPEG、PNG、GIF、BMP、WebP、AVIF；WBMP等没有魔数的格式无法识别。可启用缓存：以路径为键，
+ * 并以文件大小及修改时间判断缓存是否有效，用于反复检测同一批文件的场景；缓存的条目数有上限，超出时淘汰最久未使用的条目
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+public class ImageDetector {
+    /** 识别所需读取的字节数 */
+    static final int HEADER_SIZE = 32;
+    private static final byte[] PNG = { (byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A };
+    /** 启用缓存时，默认的最大缓存条目数 */
+    public static final int DEFAULT_CACHE_SIZE = 10000;
+
+    /** 为空表示不启用缓存 */
+    @Nullable
+    private final Cache<Path, Entry> cache;
+
+    /**
+     * @param cacheEnabled 是否缓存检测结果，启用时最多缓存{@link #DEFAULT_CACHE_SIZE}个文件
+     */
+    public ImageDetector(boolean cacheEnabled) {
+        this(cacheEnabled ? DEFAULT_CACHE_SIZE : 0);
+    }
+
+    /**
+     * @param cacheSize 最大缓存条目数，为0时不启用缓存
+     */
+    public ImageDetector(int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("缓存条目数不能为负数：" + cacheSize);
+        }
+        this.cache = cacheSize == 0 ? null : CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    /** 不启用缓存 */
+    public ImageDetector() {
+        this(false);
+    }
+
+    /**
+     * 根据文件头识别图片格式
+     *
+     * @param header 文件开头的字节，不少于{@link #HEADER_SIZE}个时才能识别所有格式
+     * @param length header中的有效字节数
+     */
+    public static Optional<ImageFormat> detect(byte[] header, int length) {
+        if (startsWith(header, length, 0, 0xFF, 0xD8, 0xFF)) {
+            return Optional.of(ImageFormat.JPEG);
+        }
+        if (startsWith(header, length, 0, PNG)) {
+            return Optional.of(ImageFormat.PNG);
+        }
+        if (startsWith(header, length, 0, ascii("GIF87a")) || startsWith(header, length, 0, ascii("GIF89a"))) {
+            return Optional.of(ImageFormat.GIF);
+        }
+        // BMP：BM + 4字节文件大小 + 4字节保留（为0）
+        if (startsWith(header, length, 0, 'B', 'M') && startsWith(header, length, 6, 0, 0, 0, 0)) {
+            return Optional.of(ImageFormat.BMP);
+        }
+        if (startsWith(header, length, 0, ascii("RIFF")) && startsWith(header, length, 8, ascii("WEBP"))) {
+            return Optional.of(ImageFormat.WEBP);
+        }
+        if (isAvif(header, length)) {
+            return Optional.of(ImageFormat.AVIF);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * AVIF（ISO BMFF）：以ftyp box开头，主品牌或兼容品牌为avif（静态）或avis（序列）
+     */
+    private static boolean isAvif(byte[] header, int length) {
+        if (!startsWith(header, length, 4, ascii("ftyp"))) {
+            return false;
+        }
+        long boxSize = ByteBuffer.wrap(header, 0, 4).getInt() & 0xFFFFFFFFL;
+        // 品牌从第8个字节开始，每个4字节，第12~16字节为次版本号
+        int end = (int) Math.min(Math.min(boxSize, length), header.length);
+        for (int offset = 8; offset + 4 <= end; offset += offset == 8 ? 8 : 4) {
+            if (startsWith(header, length, offset, ascii("avif")) || startsWith(header, length, offset, ascii("avis"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static boolean startsWith(byte[] bytes, int length, int offset, byte[] prefix) {
+        if (length < offset + prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(byte[] bytes, int length, int offset, int... prefix) {
+        if (length < offset + prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((bytes[offset + i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 识别文件的图片格式
+     *
+     * @return 不是文件或无法识别时返回空
+     */
+    public Optional<ImageFormat> detect(Path path) {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        }
+        return detect(path, attrs);
+    }
+
+    private Optional<ImageFormat> detect(Path path, BasicFileAttributes attrs) {
+        if (!attrs.isRegularFile()) {
+            return Optional.empty();
+        }
+        if (cache != null) {
+            Entry entry = cache.getIfPresent(path);
+            if (entry != null && entry.size == attrs.size() && entry.lastModifiedTime.equals(attrs.lastModifiedTime())) {
+                return Optional.ofNullable(entry.format);
+            }
+        }
+        Optional<ImageFormat> format = readAndDetect(path);
+        if (cache != null) {
+            cache.put(path, new Entry(attrs.size(), attrs.lastModifiedTime(), format.orElse(null)));
+        }
+        return format;
+    }
+
+    private static Optional<ImageFormat> readAndDetect(Path path) {
+        byte[] header = new byte[HEADER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(header);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // 读满文件头或读到末尾
+            }
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        }
+        return detect(header, buffer.position());
+    }
+
+    /**
+     * 判断文件的内容是否为图片
+     */
+    public boolean isImage(Path path) {
+        return detect(path).isPresent();
+    }
+
+    /**
+     * 判断目录下（不含子目录）是否含有图片文件。将先列出目录，再并行地检测各个文件，检测到第一个图片后即停止
+     */
+    public boolean containsImage(Path dir) {
+        return containsImage(dir, path -> false);
+    }
+
+    /**
+     * 判断目录下（不含子目录）是否含有图片文件
+     *
+     * @param fallback 无法通过文件头识别时，判断文件是否为图片，如按后缀判断没有魔数的格式
+     */
+    boolean containsImage(Path dir, Predicate<Path> fallback) {
+        List<Path> entries = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            stream.forEach(entries::add);
+        } catch (IOException | DirectoryIteratorException e) {
+            throw new WrapperException(e);
+        }
+        return entries.parallelStream().anyMatch(path -> {
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                return detect(path, attrs).isPresent() || attrs.isRegularFile() && fallback.test(path);
+            } catch (IOException | WrapperException e) {
+                // 无法读取的文件（如无效的链接）视为非图片
+                return false;
+            }
+        });
+    }
+
+    /** 移除指定文件的缓存 */
+    public void invalidate(Path path) {
+        if (cache != null) {
+            cache.invalidate(path);
+        }
+    }
+
+    public void clear() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final long size;
+        private final FileTime lastModifiedTime;
+        /** 为空表示不是图片 */
+        private final ImageFormat format;
+    }
+}
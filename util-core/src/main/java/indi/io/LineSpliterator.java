@@ -0,0 +1,286 @@
+package indi.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import lombok.Getter;
+
+/**
+ * 按行读取文本文件的Spliterator：以内存映射的窗口读取文件，按行分隔符的字节查找行尾，只在产出行时解码
+ *
+ * <p>根据文件开头的BOM判断编码（UTF-8、UTF-16、UTF-32），不含BOM时使用给定的默认编码。
+ * 只以\n作为行分隔符，行尾的\r将被去除；在这些编码中，\n的编码单元不会出现在其他字符的编码中，因此可以直接按字节查找
+ *
+ * <p>拆分时在范围中点之后的第一个行尾处切分，每行只会属于一个拆分，可用于并行流。
+ * 同一文件的各个拆分共用一个FileChannel，由流的onClose关闭
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+final class LineSpliterator implements Spliterator<String>, Closeable {
+    /** 映射窗口的大小，一行超过该长度时窗口将扩大 */
+    static final int WINDOW_SIZE = 32 * 1024 * 1024;
+    /** 剩余字节数小于该值时不再拆分 */
+    private static final long MIN_SPLIT_SIZE = 1024 * 1024;
+    private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+
+    private final FileChannel channel;
+    /** 编码，使用明确字节序的版本，解码时不会再处理BOM */
+    @Getter
+    private final Charset charset;
+    /** 是否含BOM */
+    @Getter
+    private final boolean bom;
+    /** 数据（BOM之后）的起始位置，编码单元的对齐以此为准 */
+    private final long dataStart;
+    /** \n的编码 */
+    private final byte[] newline;
+    private final int windowSize;
+    private long position;
+    private final long end;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    private LineSpliterator(FileChannel channel, Charset charset, boolean bom, long dataStart, long position,
+            long end, int windowSize) {
+        this.channel = channel;
+        this.charset = charset;
+        this.bom = bom;
+        this.dataStart = dataStart;
+        this.newline = "\n".getBytes(charset);
+        this.position = position;
+        this.end = end;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * 打开文件并检测BOM
+     *
+     * @param defaultCharset 不含BOM时使用的编码
+     */
+    static LineSpliterator open(Path path, Charset defaultCharset) throws IOException {
+        return open(path, defaultCharset, WINDOW_SIZE);
+    }
+
+    static LineSpliterator open(Path path, Charset defaultCharset, int windowSize) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer head = ByteBuffer.allocate(4);
+            while (head.hasRemaining() && channel.read(head, head.position()) > 0) {
+                // 读取最多4个字节
+            }
+            head.flip();
+            byte[] bytes = new byte[head.remaining()];
+            head.get(bytes);
+
+            Charset charset = defaultCharset;
+            int bomLength = 0;
+            // UTF-32LE的BOM以UTF-16LE的BOM开头，需先判断
+            if (startsWith(bytes, 0x00, 0x00, 0xFE, 0xFF)) {
+                charset = Charset.forName("UTF-32BE");
+                bomLength = 4;
+            } else if (startsWith(bytes, 0xFF, 0xFE, 0x00, 0x00)) {
+                charset = Charset.forName("UTF-32LE");
+                bomLength = 4;
+            } else if (startsWith(bytes, 0xEF, 0xBB, 0xBF)) {
+                charset = StandardCharsets.UTF_8;
+                bomLength = 3;
+            } else if (startsWith(bytes, 0xFE, 0xFF)) {
+                charset = StandardCharsets.UTF_16BE;
+                bomLength = 2;
+            } else if (startsWith(bytes, 0xFF, 0xFE)) {
+                charset = StandardCharsets.UTF_16LE;
+                bomLength = 2;
+            } else if (charset.equals(StandardCharsets.UTF_16)) {
+                // 无BOM的UTF-16默认为大端
+                charset = StandardCharsets.UTF_16BE;
+            }
+            return new LineSpliterator(channel, charset, bomLength > 0, bomLength, bomLength, channel.size(),
+                    windowSize);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static boolean startsWith(byte[] bytes, int... prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((bytes[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (position >= end) {
+            return false;
+        }
+        try {
+            long lineEnd = findLineEnd(position);
+            ByteBuffer line = slice(position, lineEnd);
+            position = Math.min(end, lineEnd + newline.length);
+            action.accept(decode(line));
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 在映射窗口中查找从from开始的行尾（\n的位置），没有时返回end
+     *
+     * <p>from在当前窗口内时直接在窗口中查找，只有查找到窗口末尾仍没有行尾时，才从行首重新映射窗口；
+     * 从行首映射的窗口仍不足一行时，窗口将扩大。因此映射次数约为文件大小除以窗口大小
+     */
+    private long findLineEnd(long from) throws IOException {
+        int unit = newline.length;
+        int size = windowSize;
+        if (window == null || from < windowStart || from >= windowStart + window.limit()) {
+            map(from, size);
+        }
+        while (true) {
+            int limit = window.limit();
+            for (int i = (int) (from - windowStart); i + unit <= limit; i += unit) {
+                if (isNewline(window, i)) {
+                    return windowStart + i;
+                }
+            }
+            if (windowStart + limit >= end) {
+                return end;
+            }
+            if (windowStart == from) {
+                // 一行超过窗口大小，从行首开始映射更大的窗口
+                if (size >= Integer.MAX_VALUE / 2) {
+                    throw new IOException("单行过长：" + (end - from));
+                }
+                size *= 2;
+            }
+            map(from, size);
+        }
+    }
+
+    private boolean isNewline(ByteBuffer buffer, int index) {
+        for (int k = 0; k < newline.length; k++) {
+            if (buffer.get(index + k) != newline[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** 从from开始映射size个字节（或到范围末尾）作为新的窗口，旧窗口将由GC回收 */
+    private void map(long from, int size) throws IOException {
+        windowStart = from;
+        window = null;
+        window = channel.map(MapMode.READ_ONLY, from, Math.min(end, from + size) - from);
+    }
+
+    /** [from, to)在当前窗口中的切片，去除末尾的\r */
+    private ByteBuffer slice(long from, long to) {
+        ByteBuffer line = window.duplicate();
+        line.position((int) (from - windowStart));
+        line.limit((int) (to - windowStart));
+        int unit = newline.length;
+        if (line.remaining() >= unit && isCarriageReturn(line, line.limit() - unit)) {
+            line.limit(line.limit() - unit);
+        }
+        return line;
+    }
+
+    private boolean isCarriageReturn(ByteBuffer buffer, int index) {
+        // \r与\n的编码只在值所在的字节不同
+        for (int k = 0; k < newline.length; k++) {
+            byte expected = newline[k] == '\n' ? (byte) '\r' : newline[k];
+            if (buffer.get(index + k) != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(ByteBuffer line) {
+        return charset.decode(line).toString();
+    }
+
+    /**
+     * 在剩余范围的中点之后的第一个行尾处拆分，返回前半部分
+     */
+    @Override
+    public Spliterator<String> trySplit() {
+        long remaining = end - position;
+        if (remaining < MIN_SPLIT_SIZE) {
+            return null;
+        }
+        int unit = newline.length;
+        long mid = position + remaining / 2;
+        mid -= (mid - dataStart) % unit;
+        try {
+            long lineEnd = scanLineEnd(mid);
+            if (lineEnd < 0) {
+                return null;
+            }
+            long split = lineEnd + unit;
+            LineSpliterator prefix = new LineSpliterator(channel, charset, bom, dataStart, position, split,
+                    windowSize);
+            position = split;
+            return prefix;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** 不映射文件，以小缓冲区查找from之后的第一个行尾，没有时返回-1 */
+    private long scanLineEnd(long from) throws IOException {
+        int unit = newline.length;
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE - SCAN_BUFFER_SIZE % unit);
+        long offset = from;
+        // 找到行尾后还需留出一行，保证两个拆分都不为空
+        while (offset < end - unit) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - offset));
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                return -1;
+            }
+            for (int i = 0; i + unit <= read; i += unit) {
+                if (isNewline(buffer, i)) {
+                    long lineEnd = offset + i;
+                    return lineEnd + unit < end ? lineEnd : -1;
+                }
+            }
+            offset += read - read % unit;
+        }
+        return -1;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - position;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
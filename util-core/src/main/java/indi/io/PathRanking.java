@@ -0,0 +1,88 @@
+package indi.io;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collector;
+
+import indi.data.Pair;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 路径排名的结果，见{@link FileUtils#rankPaths(java.util.Collection, java.util.function.Function, Comparator, int, int)}
+ *
+ * <p>值最大的k个路径为胜者，其余为败者；值相同的路径之间的排名不确定
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+@Getter
+@ToString
+public class PathRanking {
+    /** 胜者，按值从大到小排序 */
+    private final List<Path> winners;
+    /** 败者，无序 */
+    private final List<Path> losers;
+
+    private PathRanking(List<Path> winners, List<Path> losers) {
+        this.winners = Collections.unmodifiableList(winners);
+        this.losers = Collections.unmodifiableList(losers);
+    }
+
+    /**
+     * 一次遍历完成排名的Collector：以大小为k的最小堆保存当前的胜者，被挤出或未能进入堆的路径直接归入败者。
+     * 可用于并行流，各部分的堆在合并时互相竞争
+     */
+    static <T> Collector<Pair<Path, T>, ?, PathRanking> collector(Comparator<? super T> comparator,
+            int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k不能小于0：" + k);
+        }
+        Comparator<Pair<Path, T>> byValue = (a, b) -> comparator.compare(a.getSecond(), b.getSecond());
+        return Collector.of(() -> new Accumulator<>(byValue, k), Accumulator::add, Accumulator::merge,
+                Accumulator::finish);
+    }
+
+    private static class Accumulator<T> {
+        private final Comparator<Pair<Path, T>> comparator;
+        private final int k;
+        /** 最小堆，堆顶为当前胜者中最小的 */
+        private final PriorityQueue<Pair<Path, T>> heap;
+        private final List<Path> losers = new ArrayList<>();
+
+        Accumulator(Comparator<Pair<Path, T>> comparator, int k) {
+            this.comparator = comparator;
+            this.k = k;
+            this.heap = new PriorityQueue<>(Math.max(1, Math.min(k, 1024)), comparator);
+        }
+
+        void add(Pair<Path, T> entry) {
+            if (heap.size() < k) {
+                heap.offer(entry);
+            } else if (k > 0 && comparator.compare(entry, heap.peek()) > 0) {
+                losers.add(heap.poll().getFirst());
+                heap.offer(entry);
+            } else {
+                losers.add(entry.getFirst());
+            }
+        }
+
+        Accumulator<T> merge(Accumulator<T> other) {
+            other.heap.forEach(this::add);
+            losers.addAll(other.losers);
+            return this;
+        }
+
+        PathRanking finish() {
+            List<Pair<Path, T>> sorted = new ArrayList<>(heap);
+            sorted.sort(comparator.reversed());
+            List<Path> winners = new ArrayList<>(sorted.size());
+            sorted.forEach(pair -> winners.add(pair.getFirst()));
+            return new PathRanking(winners, losers);
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package indi.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import indi.data.Pair;
+import indi.exception.WrapperException;
+import indi.io.FileChangeEvent.Kind;
+import indi.thread.BasicThread;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 基于WatchService递归地监听目录树的变化，以批量事件的形式通知调用方，无需定期遍历整个目录树
+ *
+ * <p>新建的子目录将自动注册，删除的目录将自动注销。一段时间（静默期）内没有新事件时，将合并期间的所有事件后一次性通知；
+ * 同一路径的多个事件将被合并，如创建后又删除的文件不会出现在结果中。为避免持续不断的事件无限推迟通知，
+ * 最早的事件等待超过最大延迟后，即使仍有新事件也将立即通知
+ *
+ * <p>本类记录了目录树中每个条目的类型、大小及修改时间：事件队列溢出（OVERFLOW）时，将重新列出溢出的目录的直接条目，
+ * 与记录的状态比较后生成事件，只递归处理新出现或修改时间变化的子目录；新建目录时也将扫描该目录，以补上注册前就已创建的条目
+ *
+ * <p>状态按路径字符串有序存储，同一子树的条目在其中连续，删除或比较子树时只需访问该子树的条目
+ *
+ * <p>监听及通知在独立的守护线程中执行，通知函数不应长时间阻塞。不追踪符号链接
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+@Slf4j
+public class RecursiveDirectoryWatcher implements Closeable {
+    /** 等待合并的事件超过该数量时，不再等待静默期，立即通知 */
+    private static final int MAX_PENDING_EVENTS = 10000;
+    /** 未指定最大延迟时，最大延迟为静默期的倍数 */
+    private static final int DEFAULT_LATENCY_FACTOR = 10;
+
+    @Getter
+    private final Path root;
+    private final long quietPeriodMillis;
+    private final long maxLatencyMillis;
+    private final Consumer<List<FileChangeEvent>> listener;
+    private final WatchService watchService;
+    /** 路径分隔符，键为路径字符串的有序映射中，子树的范围由其确定 */
+    private final char separator;
+    private final Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
+    private final NavigableMap<String, WatchKey> registered = new ConcurrentSkipListMap<>();
+    /** 已知的条目状态，键为路径字符串，只在监听线程中访问 */
+    private final NavigableMap<String, State> known = new TreeMap<>();
+    /** 等待通知的事件，按路径合并 */
+    private final LinkedHashMap<Path, FileChangeEvent> pending = new LinkedHashMap<>();
+    /** 本批最早的事件产生的时间，为0时表示没有等待通知的事件 */
+    private long pendingSince = 0;
+    private volatile boolean closed = false;
+
+    private RecursiveDirectoryWatcher(Path root, long quietPeriodMillis, long maxLatencyMillis,
+            Consumer<List<FileChangeEvent>> listener) throws IOException {
+        this.root = root;
+        this.quietPeriodMillis = quietPeriodMillis;
+        this.maxLatencyMillis = maxLatencyMillis;
+        this.listener = listener;
+        this.watchService = root.getFileSystem().newWatchService();
+        this.separator = root.getFileSystem().getSeparator().charAt(0);
+    }
+
+    /**
+     * 开始监听目录树，注册完所有已有的目录后返回；最大延迟为静默期的10倍
+     *
+     * @param root 根目录
+     * @param quietPeriodMillis 静默期，单位为毫秒
+     * @param listener 处理每批事件的函数，在监听线程中执行
+     */
+    public static RecursiveDirectoryWatcher start(Path root, long quietPeriodMillis,
+            Consumer<List<FileChangeEvent>> listener) {
+        return start(root, quietPeriodMillis, quietPeriodMillis * DEFAULT_LATENCY_FACTOR, listener);
+    }
+
+    /**
+     * 开始监听目录树，注册完所有已有的目录后返回
+     *
+     * @param root 根目录
+     * @param quietPeriodMillis 静默期，单位为毫秒
+     * @param maxLatencyMillis 最大延迟，单位为毫秒：一批事件中最早的事件产生后，最迟经过该时间即通知
+     * @param listener 处理每批事件的函数，在监听线程中执行
+     */
+    public static RecursiveDirectoryWatcher start(Path root, long quietPeriodMillis, long maxLatencyMillis,
+            Consumer<List<FileChangeEvent>> listener) {
+        if (!Files.isDirectory(root, LinkOption.NOFOLLOW_LINKS)) {
+            throw new IllegalArgumentException("路径指向的目录不存在：" + root);
+        }
+        if (maxLatencyMillis < quietPeriodMillis) {
+            throw new IllegalArgumentException("最大延迟不能小于静默期：" + maxLatencyMillis + " < " + quietPeriodMillis);
+        }
+        RecursiveDirectoryWatcher watcher;
+        try {
+            watcher = new RecursiveDirectoryWatcher(root, quietPeriodMillis, maxLatencyMillis, listener);
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        }
+        // 初始扫描只建立状态，不产生事件
+        watcher.scan(root, false);
+        new BasicThread(watcher::run, "RecursiveDirectoryWatcher-" + root.getFileName()) {}.startDeamon();
+        return watcher;
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                WatchKey key;
+                if (pending.isEmpty()) {
+                    pendingSince = 0;
+                    key = watchService.take();
+                } else {
+                    // 等待静默期，但不超过最大延迟
+                    long timeout = Math.min(quietPeriodMillis,
+                            pendingSince + maxLatencyMillis - System.currentTimeMillis());
+                    key = timeout > 0 ? watchService.poll(timeout, TimeUnit.MILLISECONDS) : null;
+                }
+                if (key == null) {
+                    // 静默期内没有新事件，或已达到最大延迟
+                    flush();
+                    continue;
+                }
+                do {
+                    processKey(key);
+                } while ((key = watchService.poll()) != null);
+                if (pending.size() >= MAX_PENDING_EVENTS
+                        || !pending.isEmpty() && System.currentTimeMillis() - pendingSince >= maxLatencyMillis) {
+                    flush();
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // 已关闭
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void processKey(WatchKey key) {
+        Path dir = keys.get(key);
+        if (dir == null) {
+            key.cancel();
+            return;
+        }
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            WatchEvent.Kind<?> kind = event.kind();
+            if (kind == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            Path child = dir.resolve((Path) event.context());
+            if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+                delete(child);
+            } else if (kind == StandardWatchEventKinds.ENTRY_MODIFY && isKnownDirectory(child)) {
+                // 目录的修改事件（部分系统在其下条目变化时产生）无需处理，条目的变化有单独的事件
+                continue;
+            } else {
+                // 创建、修改事件都以当前状态为准，与已知状态比较
+                scan(child, true);
+            }
+        }
+        if (overflow) {
+            log.debug("监听事件溢出，重新比较目录：{}", dir);
+            reconcile(dir);
+        }
+        if (!key.reset()) {
+            // 目录已不可访问（通常已被删除），其删除事件由上级目录产生
+            keys.remove(key);
+            registered.remove(dir.toString(), key);
+        }
+    }
+
+    /**
+     * 扫描路径及其子树，与已知状态比较：新出现的条目产生创建事件，大小或修改时间变化的文件产生修改事件，
+     * 已消失的条目产生删除事件；新的目录将被注册
+     *
+     * @param emit 是否产生事件
+     */
+    private void scan(Path path, boolean emit) {
+        Set<String> seen = new HashSet<>();
+        try {
+            Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    register(dir);
+                    seen.add(dir.toString());
+                    update(dir, attrs, emit);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    seen.add(file.toString());
+                    update(file, attrs, emit);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    // 扫描期间被删除等情况，交由之后的比较处理
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.warn("扫描目录失败：{}，{}", path, e.toString());
+        }
+        // 已知但本次未扫描到的条目已被删除
+        String key = path.toString();
+        if (!seen.contains(key)) {
+            delete(path);
+        } else if (isKnownDirectory(path)) {
+            List<Path> removed = new ArrayList<>();
+            for (State state : descendants(known, key).values()) {
+                if (!seen.contains(state.path.toString())) {
+                    removed.add(state.path);
+                }
+            }
+            removed.forEach(this::delete);
+        }
+    }
+
+    /**
+     * 只列出目录的直接条目，与已知状态比较：新出现或类型变化的条目扫描其子树，消失的条目删除其子树，
+     * 已知的子目录仅在修改时间变化（即其直接条目有增删）时递归比较
+     */
+    private void reconcile(Path dir) {
+        Map<String, Pair<Path, BasicFileAttributes>> listing = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path child : stream) {
+                try {
+                    listing.put(child.toString(), Pair.of(child,
+                            Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS)));
+                } catch (NoSuchFileException e) {
+                    // 列出后已被删除
+                }
+            }
+            update(dir, Files.readAttributes(dir, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS), true);
+        } catch (NoSuchFileException e) {
+            delete(dir);
+            return;
+        } catch (IOException e) {
+            log.warn("列出目录失败：{}，{}", dir, e.toString());
+            return;
+        }
+        for (State child : children(dir.toString())) {
+            if (!listing.containsKey(child.path.toString())) {
+                delete(child.path);
+            }
+        }
+        for (Pair<Path, BasicFileAttributes> entry : listing.values()) {
+            Path child = entry.getFirst();
+            BasicFileAttributes attrs = entry.getSecond();
+            State old = known.get(child.toString());
+            if (old == null || old.directory != attrs.isDirectory()) {
+                if (old != null) {
+                    // 类型变化，先删除原有的子树
+                    delete(child);
+                }
+                scan(child, true);
+            } else if (!attrs.isDirectory()) {
+                update(child, attrs, true);
+            } else if (old.lastModified != attrs.lastModifiedTime().toMillis()
+                    || !registered.containsKey(child.toString())) {
+                register(child);
+                reconcile(child);
+            }
+        }
+    }
+
+    /**
+     * 以当前属性更新条目的状态：新出现或类型变化的条目产生创建事件，大小或修改时间变化的文件产生修改事件
+     *
+     * @param emit 是否产生事件
+     */
+    private void update(Path entry, BasicFileAttributes attrs, boolean emit) {
+        State state = new State(entry, attrs.isDirectory(), attrs.size(), attrs.lastModifiedTime().toMillis());
+        State old = known.put(entry.toString(), state);
+        if (!emit) {
+            return;
+        }
+        if (old == null || old.directory != state.directory) {
+            if (old != null) {
+                emit(Kind.DELETE, entry, old.directory);
+            }
+            emit(Kind.CREATE, entry, state.directory);
+        } else if (!state.directory && (old.size != state.size || old.lastModified != state.lastModified)) {
+            emit(Kind.MODIFY, entry, false);
+        }
+    }
+
+    private boolean isKnownDirectory(Path path) {
+        State state = known.get(path.toString());
+        return state != null && state.directory;
+    }
+
+    /**
+     * 路径的所有后代（不含自身）：后代的键都以“路径+分隔符”开头，在有序映射中是连续的一段，
+     * 上界为将末尾的分隔符加1后的字符串
+     */
+    private <V> NavigableMap<String, V> descendants(NavigableMap<String, V> map, String path) {
+        String prefix = path.charAt(path.length() - 1) == separator ? path : path + separator;
+        String end = prefix.substring(0, prefix.length() - 1) + (char) (separator + 1);
+        return map.subMap(prefix, true, end, false);
+    }
+
+    /** 已知的直接条目，跳过各子目录的子树，只访问直接条目 */
+    private List<State> children(String dir) {
+        List<State> children = new ArrayList<>();
+        NavigableMap<String, State> subtree = descendants(known, dir);
+        if (subtree.isEmpty()) {
+            return children;
+        }
+        int start = dir.charAt(dir.length() - 1) == separator ? dir.length() : dir.length() + 1;
+        Map.Entry<String, State> entry = subtree.firstEntry();
+        while (entry != null) {
+            int index = entry.getKey().indexOf(separator, start);
+            if (index < 0) {
+                children.add(entry.getValue());
+                entry = subtree.higherEntry(entry.getKey());
+            } else {
+                // 某个直接条目的后代，跳过该条目的整个子树
+                entry = subtree.ceilingEntry(entry.getKey().substring(0, index) + (char) (separator + 1));
+            }
+        }
+        return children;
+    }
+
+    /** 删除路径及其子树的状态，并注销其中的目录 */
+    private void delete(Path path) {
+        String key = path.toString();
+        State state = known.remove(key);
+        if (state == null) {
+            return;
+        }
+        emit(Kind.DELETE, path, state.directory);
+        if (!state.directory) {
+            return;
+        }
+        NavigableMap<String, State> subtree = descendants(known, key);
+        for (State child : subtree.values()) {
+            emit(Kind.DELETE, child.path, child.directory);
+        }
+        subtree.clear();
+        unregister(registered.remove(key));
+        NavigableMap<String, WatchKey> subKeys = descendants(registered, key);
+        subKeys.values().forEach(this::unregister);
+        subKeys.clear();
+    }
+
+    private void unregister(WatchKey key) {
+        if (key != null) {
+            key.cancel();
+            keys.remove(key);
+        }
+    }
+
+    private void register(Path dir) {
+        if (registered.containsKey(dir.toString())) {
+            return;
+        }
+        try {
+            WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+            keys.put(key, dir);
+            registered.put(dir.toString(), key);
+        } catch (NoSuchFileException e) {
+            // 注册前已被删除
+        } catch (IOException e) {
+            log.warn("注册目录失败：{}，{}", dir, e.toString());
+        }
+    }
+
+    /**
+     * 合并同一路径的事件：创建后修改仍为创建，创建后删除则相互抵消，删除后创建视为修改
+     */
+    private void emit(Kind kind, Path path, boolean directory) {
+        if (pendingSince == 0) {
+            pendingSince = System.currentTimeMillis();
+        }
+        FileChangeEvent previous = pending.remove(path);
+        Kind merged = kind;
+        if (previous != null) {
+            Kind old = previous.getKind();
+            if (old == Kind.CREATE && kind == Kind.DELETE) {
+                return;
+            } else if (old == Kind.CREATE) {
+                merged = Kind.CREATE;
+            } else if (old == Kind.DELETE && kind == Kind.CREATE) {
+                merged = previous.isDirectory() == directory ? Kind.MODIFY : Kind.CREATE;
+            }
+        }
+        pending.put(path, new FileChangeEvent(merged, path, directory));
+    }
+
+    private void flush() {
+        pendingSince = 0;
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<FileChangeEvent> events = new ArrayList<>(pending.values());
+        pending.clear();
+        try {
+            listener.accept(events);
+        } catch (RuntimeException e) {
+            log.warn("处理文件变化事件失败", e);
+        }
+    }
+
+    /** 已注册监听的目录数 */
+    public int getWatchedDirectories() {
+        return registered.size();
+    }
+
+    /** 停止监听，尚未通知的事件将被丢弃 */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class State {
+        private final Path path;
+        private final boolean directory;
+        private final long size;
+        private final long lastModified;
+    }
+}
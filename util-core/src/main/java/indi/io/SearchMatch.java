@@ -0,0 +1,26 @@
+package indi.io;
+
+import java.nio.file.Path;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 文件内容查找的一个匹配，见{@link FileUtils#search(Path, String, SearchOptions)}
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class SearchMatch {
+    private final Path path;
+    /** 匹配内容在文件中的字节偏移量 */
+    private final long offset;
+    /** 所在的行号，从1开始 */
+    private final long line;
+    /** 所在行的内容，不含行分隔符；行过长时只截取匹配内容附近的部分 */
+    private final String text;
+}
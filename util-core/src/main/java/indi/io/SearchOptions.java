@@ -0,0 +1,48 @@
+package indi.io;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.function.Predicate;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * {@link FileUtils#search(Path, String, SearchOptions)}的参数
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+@Getter
+@Builder
+public class SearchOptions {
+    /** 是否将查找内容视为正则表达式，默认为普通字符串 */
+    @Builder.Default
+    private boolean regex = false;
+    /** 是否忽略大小写；对普通字符串启用时，将转为正则表达式查找 */
+    @Builder.Default
+    private boolean ignoreCase = false;
+    /** 文件的编码，需兼容ASCII（\n为单字节），默认为UTF-8 */
+    @Builder.Default
+    private Charset charset = StandardCharsets.UTF_8;
+    /** 并行度，即同时查找的文件数，默认为CPU核数 */
+    @Builder.Default
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    /** 最大深度，1表示只查找根目录下的文件 */
+    @Builder.Default
+    private int maxDepth = Integer.MAX_VALUE;
+    /** 是否跳过二进制文件，即开头8KB中含有0字节的文件 */
+    @Builder.Default
+    private boolean skipBinary = true;
+    /** 每个文件最多返回的匹配数 */
+    @Builder.Default
+    private int maxMatchesPerFile = Integer.MAX_VALUE;
+    /** 只查找满足条件的文件，可为空 */
+    private Predicate<Path> fileFilter;
+
+    /** 默认参数 */
+    public static SearchOptions defaults() {
+        return builder().build();
+    }
+}
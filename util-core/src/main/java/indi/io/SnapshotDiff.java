@@ -0,0 +1,33 @@
+package indi.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 两个目录快照间的差异，见{@link DirectorySnapshot#diff(java.nio.file.Path, java.nio.file.Path)}
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class SnapshotDiff {
+    private final Kind kind;
+    /** 旧快照中的条目，新增时为空 */
+    private final SnapshotEntry oldEntry;
+    /** 新快照中的条目，删除时为空 */
+    private final SnapshotEntry newEntry;
+
+    /** 相对于根目录的路径 */
+    public String getPath() {
+        return newEntry != null ? newEntry.getPath() : oldEntry.getPath();
+    }
+
+    public enum Kind {
+        ADDED,
+        REMOVED,
+        MODIFIED
+    }
+}
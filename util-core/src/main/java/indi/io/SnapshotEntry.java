@@ -0,0 +1,26 @@
+package indi.io;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 目录快照中的一个条目，见{@link DirectorySnapshot}
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class SnapshotEntry {
+    /** 相对于根目录的路径，以/分隔 */
+    private final String path;
+    private final boolean directory;
+    /** 文件大小，目录为0 */
+    private final long size;
+    /** 修改时间，毫秒 */
+    private final long lastModified;
+    /** 文件内容的128位MurmurHash3散列值，创建快照时未计算散列值或为目录时为空 */
+    private final byte[] hash;
+}
@@ -0,0 +1,28 @@
+package indi.scanner;
+
+import indi.constant.DiskEntryType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 磁盘目录中的一个条目，见{@link DiskCatalog}
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CatalogEntry {
+    /** 条目在目录中的编号，编号越大文件越大 */
+    private final int id;
+    /** 扫描结果中的路径，见{@link indi.data.dto.DirectoryEntryDTO#getPath()} */
+    private final String path;
+    private final String name;
+    private final DiskEntryType type;
+    /** 文件大小，目录为0 */
+    private final long size;
+    /** 修改时间，毫秒；目录为0 */
+    private final long lastModified;
+}
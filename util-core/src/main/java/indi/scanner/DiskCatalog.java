@@ -0,0 +1,662 @@
+package indi.scanner;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import indi.constant.DiskEntryType;
+import indi.data.dto.DirectoryDTO;
+import indi.data.dto.DirectoryEntryDTO;
+import indi.data.dto.FileDTO;
+import indi.exception.WrapperException;
+
+/**
+ * 磁盘目录：将扫描结果写入紧凑的二进制文件，之后以内存映射的方式读取并查询，无需在内存中保留扫描结果，也无需重新扫描
+ *
+ * <p>条目按大小升序保存为定长（32字节）的记录，条目的编号即记录的序号，路径以UTF-8保存在字符串堆中。另有三个索引：
+ * <ul>
+ * <li>大小区间：按大小的二进制位数（0~64）记录每个区间的第一个编号，按大小查询时只需在区间内二分查找</li>
+ * <li>扩展名：每个扩展名（小写，不含点）对应的编号列表，编号升序即大小升序，可与大小范围直接结合</li>
+ * <li>名称三元组：名称（小写，UTF-8）中每3个连续字节对应的编号列表，以差值varint压缩；查询名称包含的内容时，
+ * 取各三元组列表的交集，再逐个校验名称</li>
+ * </ul>
+ *
+ * <p>文件格式：魔数DCAT、版本号、条目数、扩展名数、三元组数（各4字节），各部分的起始位置及文件末尾位置（各8字节），
+ * 之后依次为记录、大小区间、扩展名表、扩展名索引、三元组表、三元组索引、字符串堆。每部分单独映射，均不能超过2GB
+ *
+ * <p>查询线程安全。文件头、大小区间及扩展名表较小，打开时读取到堆中；其余部分映射到内存，
+ * 使用后应调用{@link #close()}释放映射的缓存。映射在缓存被GC回收后才会解除，此前将一直占用文件（Windows下无法删除或覆盖该文件）
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+public final class DiskCatalog implements AutoCloseable {
+    private static final byte[] MAGIC = { 'D', 'C', 'A', 'T' };
+    private static final int VERSION = 1;
+    private static final int SECTION_COUNT = 7;
+    private static final int HEADER_SIZE = MAGIC.length + 4 * 4 + 8 * (SECTION_COUNT + 1);
+    /** 记录：大小（8字节）、修改时间（8）、路径在字符串堆中的位置（4）、路径长度（4）、名称长度（2）、类型（1）、填充（5） */
+    private static final int RECORD_SIZE = 32;
+    /** 大小区间数，即0~64位 */
+    private static final int BUCKET_COUNT = 65;
+    /** 三元组表的项：三元组（4字节）、编号列表在三元组索引中的位置（4）、长度（4） */
+    private static final int TRIGRAM_ENTRY_SIZE = 12;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+    private static final DiskEntryType[] TYPES = DiskEntryType.values();
+
+    private final int count;
+    /** 第i个区间的第一个编号，最后一项为条目数 */
+    private final int[] buckets;
+    /** 扩展名 -> {在扩展名索引中的位置, 数量} */
+    private final Map<String, int[]> extensions;
+    private final int trigramCount;
+    /** 映射的部分，关闭后置空 */
+    private ByteBuffer records;
+    private ByteBuffer extensionPostings;
+    private ByteBuffer trigrams;
+    private ByteBuffer trigramPostings;
+    private ByteBuffer heap;
+    private volatile boolean closed = false;
+
+    private DiskCatalog(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 0, (int) Math.min(channel.size(), HEADER_SIZE));
+            byte[] magic = new byte[MAGIC.length];
+            if (header.remaining() < HEADER_SIZE || !Arrays.equals(MAGIC, read(header, magic))) {
+                throw new IllegalArgumentException("不是磁盘目录文件：" + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("不支持的磁盘目录版本：" + version);
+            }
+            this.count = header.getInt();
+            int extensionCount = header.getInt();
+            this.trigramCount = header.getInt();
+            long[] offsets = new long[SECTION_COUNT + 1];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = header.getLong();
+            }
+            this.buckets = new int[BUCKET_COUNT + 1];
+            readFully(channel, offsets[1], (int) (offsets[2] - offsets[1])).asIntBuffer().get(buckets);
+            this.extensions = new HashMap<>(extensionCount * 2);
+            ByteBuffer extensionTable = readFully(channel, offsets[2], (int) (offsets[3] - offsets[2]));
+            for (int i = 0; i < extensionCount; i++) {
+                byte[] name = read(extensionTable, new byte[extensionTable.getShort() & 0xFFFF]);
+                extensions.put(new String(name, StandardCharsets.UTF_8),
+                        new int[] { extensionTable.getInt(), extensionTable.getInt() });
+            }
+            this.records = map(channel, offsets, 0);
+            this.extensionPostings = map(channel, offsets, 3);
+            this.trigrams = map(channel, offsets, 4);
+            this.trigramPostings = map(channel, offsets, 5);
+            this.heap = map(channel, offsets, 6);
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long[] offsets, int section) throws IOException {
+        return channel.map(MapMode.READ_ONLY, offsets[section], offsets[section + 1] - offsets[section]);
+    }
+
+    /** 将文件的一部分读取到堆中，文件过短时只读取到文件末尾 */
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) >= 0) {
+            // 继续读取
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static byte[] read(ByteBuffer buffer, byte[] bytes) {
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * 以内存映射的方式打开磁盘目录文件
+     */
+    public static DiskCatalog open(Path file) {
+        try {
+            return new DiskCatalog(file);
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        }
+    }
+
+    /**
+     * 将递归扫描的结果写入磁盘目录文件，见{@link DiskScanner#scanTree(Path, ScanOptions)}；根目录本身不写入
+     *
+     * @param file 已存在时将被覆盖
+     * @return 条目数
+     */
+    public static int write(Path file, DirectoryDTO tree) {
+        return write(file, flatten(tree));
+    }
+
+    private static Stream<DirectoryEntryDTO> flatten(DirectoryDTO directory) {
+        if (directory.getEntries() == null) {
+            return Stream.empty();
+        }
+        return directory.getEntries().stream()
+                .flatMap(entry -> entry instanceof DirectoryDTO
+                        ? Stream.concat(Stream.of(entry), flatten((DirectoryDTO) entry))
+                        : Stream.of(entry));
+    }
+
+    /**
+     * 将条目写入磁盘目录文件，可用于{@link DiskScanner#stream(Path, boolean)}的结果
+     *
+     * <p>写入时需在内存中保存所有条目的路径及索引，但不会保留DTO
+     *
+     * @param file 已存在时将被覆盖
+     * @return 条目数
+     */
+    public static int write(Path file, Stream<? extends DirectoryEntryDTO> entries) {
+        List<Row> rows = new ArrayList<>();
+        entries.forEach(entry -> rows.add(Row.of(entry)));
+        Row[] sorted = rows.toArray(new Row[0]);
+        rows.clear();
+        // 稳定排序，大小相同时保持原有顺序
+        Arrays.parallelSort(sorted, Comparator.comparingLong(row -> row.size));
+        try {
+            new Writer(sorted).write(file);
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        }
+        return sorted.length;
+    }
+
+    /** 条目数 */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 关闭磁盘目录，释放对映射的缓存的引用，之后的查询将抛出{@link IllegalStateException}；重复调用无效果
+     *
+     * <p>映射在缓存被GC回收后才会解除，关闭前已返回的条目不受影响。不应与查询并发调用
+     */
+    @Override
+    public void close() {
+        closed = true;
+        records = null;
+        extensionPostings = null;
+        trigrams = null;
+        trigramPostings = null;
+        heap = null;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("磁盘目录已关闭");
+        }
+    }
+
+    /**
+     * 获取指定编号的条目
+     *
+     * @param id 0 ~ size() - 1
+     */
+    public CatalogEntry get(int id) {
+        checkOpen();
+        if (id < 0 || id >= count) {
+            throw new IndexOutOfBoundsException("编号超出范围：" + id);
+        }
+        int base = id * RECORD_SIZE;
+        int pathOffset = records.getInt(base + 16);
+        int pathLength = records.getInt(base + 20);
+        int nameLength = records.getShort(base + 24) & 0xFFFF;
+        return new CatalogEntry(id, decode(pathOffset, pathLength),
+                decode(pathOffset + pathLength - nameLength, nameLength), TYPES[records.get(base + 26)],
+                records.getLong(base), records.getLong(base + 8));
+    }
+
+    /** 名称包含给定内容（忽略大小写）的条目，按大小升序 */
+    public List<CatalogEntry> findByName(String contains) {
+        return find(null, 0, Long.MAX_VALUE, contains);
+    }
+
+    /** 具有给定扩展名（忽略大小写，不含点）的文件，按大小升序 */
+    public List<CatalogEntry> findByExtension(String extension) {
+        return find(extension, 0, Long.MAX_VALUE, null);
+    }
+
+    /** 大小在[minSize, maxSize]内的条目，按大小升序 */
+    public List<CatalogEntry> findBySize(long minSize, long maxSize) {
+        return find(null, minSize, maxSize, null);
+    }
+
+    /**
+     * 查询同时满足所有条件的条目
+     *
+     * @param extension 扩展名，忽略大小写，不含点；为空时不限
+     * @param minSize 最小大小（包含）
+     * @param maxSize 最大大小（包含）
+     * @param nameContains 名称包含的内容，忽略大小写；为空时不限。不少于3字节时使用三元组索引，否则需逐个比较名称
+     * @return 按大小升序
+     */
+    public List<CatalogEntry> find(@Nullable String extension, long minSize, long maxSize,
+            @Nullable String nameContains) {
+        checkOpen();
+        int from = lowerBound(minSize);
+        int to = maxSize == Long.MAX_VALUE ? count : lowerBound(maxSize + 1);
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+        // 候选编号，升序；为空表示[from, to)中的所有编号
+        int[] candidates = null;
+        if (extension != null) {
+            int[] posting = extensions.get(extension.toLowerCase(Locale.ROOT));
+            if (posting == null) {
+                return Collections.emptyList();
+            }
+            candidates = extensionIds(posting[0], posting[1], from, to);
+        }
+        String needle = nameContains == null || nameContains.isEmpty() ? null
+                : nameContains.toLowerCase(Locale.ROOT);
+        if (needle != null) {
+            byte[] bytes = needle.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length >= 3) {
+                int[] matched = trigramIds(bytes, from, to);
+                candidates = candidates == null ? matched : intersect(candidates, matched);
+            }
+        }
+        List<CatalogEntry> result = new ArrayList<>();
+        int n = candidates == null ? to - from : candidates.length;
+        for (int i = 0; i < n; i++) {
+            int id = candidates == null ? from + i : candidates[i];
+            if (needle == null || nameOf(id).toLowerCase(Locale.ROOT).contains(needle)) {
+                result.add(get(id));
+            }
+        }
+        return result;
+    }
+
+    /** 第一个大小不小于给定值的编号：先按区间缩小范围，再在区间内二分查找 */
+    private int lowerBound(long size) {
+        if (size <= 0) {
+            return 0;
+        }
+        int bucket = bucket(size);
+        int low = buckets[bucket];
+        int high = buckets[bucket + 1];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (records.getLong(mid * RECORD_SIZE) < size) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int bucket(long size) {
+        return 64 - Long.numberOfLeadingZeros(size);
+    }
+
+    /** 扩展名索引中[start, start + length)内，位于[from, to)的编号 */
+    private int[] extensionIds(int start, int length, int from, int to) {
+        int low = search(start, start + length, from);
+        int high = search(low, start + length, to);
+        int[] ids = new int[high - low];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = extensionPostings.getInt((low + i) * 4);
+        }
+        return ids;
+    }
+
+    /** 扩展名索引中[low, high)内第一个不小于id的位置 */
+    private int search(int low, int high, int id) {
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (extensionPostings.getInt(mid * 4) < id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** 名称包含给定内容的所有三元组、且位于[from, to)的编号；从最短的编号列表开始求交集 */
+    private int[] trigramIds(byte[] needle, int from, int to) {
+        int[] keys = trigrams(needle);
+        int[][] postings = new int[keys.length][];
+        for (int i = 0; i < keys.length; i++) {
+            int index = findTrigram(keys[i]);
+            if (index < 0) {
+                return new int[0];
+            }
+            int base = index * TRIGRAM_ENTRY_SIZE;
+            postings[i] = new int[] { trigrams.getInt(base + 4), trigrams.getInt(base + 8) };
+        }
+        Arrays.sort(postings, Comparator.comparingInt(posting -> posting[1]));
+        int[] ids = null;
+        for (int[] posting : postings) {
+            ids = decodePosting(posting[0], posting[1], from, to, ids);
+            if (ids.length == 0) {
+                break;
+            }
+        }
+        return ids;
+    }
+
+    private int findTrigram(int key) {
+        int low = 0;
+        int high = trigramCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midKey = trigrams.getInt(mid * TRIGRAM_ENTRY_SIZE);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 解码三元组索引中的编号列表，只保留位于[from, to)的编号；filter不为空时，只保留同时在filter中的编号
+     */
+    private int[] decodePosting(int offset, int length, int from, int to, @Nullable int[] filter) {
+        int[] ids = new int[filter == null ? 16 : filter.length];
+        int size = 0;
+        int f = 0;
+        int id = 0;
+        int position = offset;
+        int end = offset + length;
+        while (position < end) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = trigramPostings.get(position++);
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            id += delta;
+            if (id >= to) {
+                break;
+            }
+            if (id < from) {
+                continue;
+            }
+            if (filter != null) {
+                while (f < filter.length && filter[f] < id) {
+                    f++;
+                }
+                if (f == filter.length) {
+                    break;
+                }
+                if (filter[f] != id) {
+                    continue;
+                }
+            } else if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+        return Arrays.copyOf(ids, size);
+    }
+
+    /** 两个升序数组的交集 */
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int size = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length;) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private String nameOf(int id) {
+        int base = id * RECORD_SIZE;
+        int nameLength = records.getShort(base + 24) & 0xFFFF;
+        return decode(records.getInt(base + 16) + records.getInt(base + 20) - nameLength, nameLength);
+    }
+
+    private String decode(int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = heap.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** 名称中所有不重复的三元组，升序 */
+    private static int[] trigrams(byte[] name) {
+        if (name.length < 3) {
+            return new int[0];
+        }
+        int[] keys = new int[name.length - 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (name[i] & 0xFF) << 16 | (name[i + 1] & 0xFF) << 8 | (name[i + 2] & 0xFF);
+        }
+        Arrays.sort(keys);
+        int size = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                keys[size++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, size);
+    }
+
+    /** 写入时的条目 */
+    private static class Row {
+        private byte[] path;
+        private int nameLength;
+        private byte type;
+        private long size;
+        private long lastModified;
+        /** 小写的名称，用于构建索引 */
+        private String lowerName;
+
+        static Row of(DirectoryEntryDTO entry) {
+            Row row = new Row();
+            String path = entry.getPath() != null ? entry.getPath() : String.valueOf(entry.getRealPath());
+            String name = entry.getName() != null ? entry.getName() : path;
+            row.path = path.getBytes(StandardCharsets.UTF_8);
+            int nameLength = name.getBytes(StandardCharsets.UTF_8).length;
+            // 名称为路径的最后一部分；不一致时以整个路径作为名称
+            row.nameLength = path.endsWith(name) && nameLength <= 0xFFFF ? nameLength
+                    : Math.min(row.path.length, 0xFFFF);
+            row.lowerName = name.toLowerCase(Locale.ROOT);
+            DiskEntryType type = entry.getType() != null ? entry.getType() : DiskEntryType.UNKNOWN;
+            row.type = (byte) type.ordinal();
+            if (entry instanceof FileDTO) {
+                FileDTO file = (FileDTO) entry;
+                row.size = file.getSize() != null ? file.getSize() : 0;
+                row.lastModified = file.getLastModifiedTime() != null ? file.getLastModifiedTime().getTime() : 0;
+            }
+            return row;
+        }
+
+        /** 扩展名，小写，不含点；目录、没有扩展名或以点开头的隐藏文件为空 */
+        String extension() {
+            int dot = lowerName.lastIndexOf('.');
+            return type == DiskEntryType.DIRECTORY.ordinal() || dot <= 0 || dot == lowerName.length() - 1 ? null
+                    : lowerName.substring(dot + 1);
+        }
+    }
+
+    /** 构建索引并写入文件 */
+    private static class Writer {
+        private final Row[] rows;
+        private final int[] buckets = new int[BUCKET_COUNT + 1];
+        private final TreeMap<String, IntList> extensions = new TreeMap<>();
+        /** 三元组 -> 差值varint编码的编号列表，按三元组排序 */
+        private final TreeMap<Integer, VarIntList> trigrams = new TreeMap<>();
+
+        Writer(Row[] rows) {
+            this.rows = rows;
+            int bucket = 0;
+            for (int id = 0; id < rows.length; id++) {
+                Row row = rows[id];
+                for (int b = bucket(row.size); bucket <= b; bucket++) {
+                    buckets[bucket] = id;
+                }
+                String extension = row.extension();
+                if (extension != null) {
+                    extensions.computeIfAbsent(extension, key -> new IntList()).add(id);
+                }
+                for (int key : DiskCatalog.trigrams(row.lowerName.getBytes(StandardCharsets.UTF_8))) {
+                    trigrams.computeIfAbsent(key, k -> new VarIntList()).add(id);
+                }
+            }
+            for (; bucket <= BUCKET_COUNT; bucket++) {
+                buckets[bucket] = rows.length;
+            }
+        }
+
+        void write(Path file) throws IOException {
+            // 各部分的长度
+            long[] lengths = new long[SECTION_COUNT];
+            lengths[0] = (long) rows.length * RECORD_SIZE;
+            lengths[1] = (BUCKET_COUNT + 1) * 4;
+            long extensionPostingCount = 0;
+            for (Map.Entry<String, IntList> entry : extensions.entrySet()) {
+                lengths[2] += 2 + entry.getKey().getBytes(StandardCharsets.UTF_8).length + 8;
+                extensionPostingCount += entry.getValue().size;
+            }
+            lengths[3] = extensionPostingCount * 4;
+            lengths[4] = (long) trigrams.size() * TRIGRAM_ENTRY_SIZE;
+            for (VarIntList posting : trigrams.values()) {
+                lengths[5] += posting.size;
+            }
+            for (Row row : rows) {
+                lengths[6] += row.path.length;
+            }
+            for (long length : lengths) {
+                if (length > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("条目过多，磁盘目录的单个部分不能超过2GB");
+                }
+            }
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file),
+                    IO_BUFFER_SIZE))) {
+                out.write(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(rows.length);
+                out.writeInt(extensions.size());
+                out.writeInt(trigrams.size());
+                long offset = HEADER_SIZE;
+                for (long length : lengths) {
+                    out.writeLong(offset);
+                    offset += length;
+                }
+                out.writeLong(offset);
+                // 记录
+                int heapOffset = 0;
+                for (Row row : rows) {
+                    out.writeLong(row.size);
+                    out.writeLong(row.lastModified);
+                    out.writeInt(heapOffset);
+                    out.writeInt(row.path.length);
+                    out.writeShort(row.nameLength);
+                    out.writeByte(row.type);
+                    out.write(new byte[5]);
+                    heapOffset += row.path.length;
+                }
+                // 大小区间
+                for (int bucket : buckets) {
+                    out.writeInt(bucket);
+                }
+                // 扩展名表及索引
+                int postingOffset = 0;
+                for (Map.Entry<String, IntList> entry : extensions.entrySet()) {
+                    byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                    out.writeShort(name.length);
+                    out.write(name);
+                    out.writeInt(postingOffset);
+                    out.writeInt(entry.getValue().size);
+                    postingOffset += entry.getValue().size;
+                }
+                for (IntList posting : extensions.values()) {
+                    for (int i = 0; i < posting.size; i++) {
+                        out.writeInt(posting.values[i]);
+                    }
+                }
+                // 三元组表及索引
+                postingOffset = 0;
+                for (Map.Entry<Integer, VarIntList> entry : trigrams.entrySet()) {
+                    out.writeInt(entry.getKey());
+                    out.writeInt(postingOffset);
+                    out.writeInt(entry.getValue().size);
+                    postingOffset += entry.getValue().size;
+                }
+                for (VarIntList posting : trigrams.values()) {
+                    out.write(posting.bytes, 0, posting.size);
+                }
+                // 字符串堆
+                for (Row row : rows) {
+                    out.write(row.path);
+                }
+            }
+        }
+    }
+
+    /** 可增长的int数组 */
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    /** 以差值varint编码的升序int列表 */
+    private static class VarIntList {
+        private byte[] bytes = new byte[4];
+        private int size = 0;
+        private int last = 0;
+
+        void add(int value) {
+            int delta = value - last;
+            last = value;
+            if (size + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + 5));
+            }
+            while ((delta & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            bytes[size++] = (byte) delta;
+        }
+    }
+}
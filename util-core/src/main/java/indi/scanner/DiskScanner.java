@@ -1,27 +1,48 @@
 package indi.scanner;
 
 import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemLoopException;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.attribute.BasicFileAttributeView;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.annotation.Nullable;
 
 import indi.constant.DiskEntryType;
 import indi.constant.StoreType;
+import indi.data.Pair;
 import indi.data.dto.DirectoryDTO;
 import indi.data.dto.DirectoryEntryDTO;
 import indi.data.dto.FileDTO;
 import indi.exception.WrapperException;
+import indi.io.FileChangeEvent;
+import indi.io.FileContent;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -45,7 +66,7 @@ public class DiskScanner {
     private Path absolutePath = null;
     
     /**
-     * 扫描指定文件，得到包含文件所有数据的结构化的Java对象，将获取文件内容（字节数组）
+     * 扫描指定文件，得到包含文件所有数据的结构化的Java对象，将获取文件内容（2026.10.18 改为内容句柄，读取内容时才读取文件）
      * 
      * @param path
      * @return
@@ -57,44 +78,36 @@ public class DiskScanner {
     /**
      * 扫描指定文件，得到包含文件所有数据的结构化的Java对象
      * 
-     * @param isScanFileContent 是否读取文件内容
+     * <p>2026.10.18 只读取一次文件属性，校验及构建DTO都使用同一份属性
+     * 
+     * @param isScanFileContent 是否读取文件内容（设置内容句柄，见{@link FileDTO#getContentHandle()}）
      */
     public Optional<FileDTO> scanFile(Path path, boolean isScanFileContent) {
         // 1. 校验
-        // a. 校验路径是否存在
-        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
-            throw new IllegalArgumentException("路径指向的文件不存在");
-        }
+        // a. 校验路径是否存在；读取文件基本属性（不追踪链接）
+        BasicFileAttributes attributes = readAttributes(path, "路径指向的文件不存在");
         // b. 校验路径是指向目录还是文件
-        if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+        if (attributes.isDirectory()) {
             throw new IllegalArgumentException("路径指向的是目录而不是文件");
         }
         /**
          * 值得注意的是，应该存在着某些特殊的“文件”，比如Java中用单词“SymbolicLink”描述的文件，这些文件可能存在着某些特殊的方面，
          * 可能需要特殊处理，但目前还没有实际碰到过，暂不作处理
          */
-        // 读取文件基本属性
-        BasicFileAttributeView fileAttributeView = 
-                Files.getFileAttributeView(path, BasicFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
-        final BasicFileAttributes attributes;
-        try {
-            attributes = fileAttributeView.readAttributes();
-        } catch (IOException e) {
-            throw new WrapperException(e);
-        }
-        
+        return Optional.of(buildFileDTO(path, attributes, isScanFileContent));
+    }
+    
+    /**
+     * 根据已读取的文件属性构建FileDTO，不会再读取属性
+     */
+    private FileDTO buildFileDTO(Path path, BasicFileAttributes attributes, boolean isScanFileContent) {
         // 2. 根据文件信息，构建FileDTO对象
-        FileDTO fileDTO = scanDirectoryEntry(path, FileDTO.class).get();
+        FileDTO fileDTO = new FileDTO();
+        fillDirectoryEntryInfo(path, attributes, fileDTO);
         
-        // 文件内容
+        // 文件内容：2026.10.18 只创建句柄，读取内容时才读取文件
         if (isScanFileContent) {
-            byte[] bytes = null;
-            try {
-                bytes = Files.readAllBytes(path);
-            } catch (IOException e) {
-                throw new WrapperException(e);
-            }
-            fileDTO.setContent(bytes);
+            fileDTO.setContentHandle(FileContent.of(path, attributes.size()));
         }
             
         fileDTO.setSize(attributes.size());// 文件大小
@@ -117,7 +130,7 @@ public class DiskScanner {
         
         fileDTO.setStoreType(StoreType.DISK);
         
-        return Optional.of(fileDTO);
+        return fileDTO;
     }
     
     /**
@@ -139,42 +152,451 @@ public class DiskScanner {
     }
 
     /**
+     * 
+     * <p>2026.10.18 目录本身及每个子条目都只读取一次属性（不追踪链接），并以该属性判断类型、构建DTO
      * 
      * @param path
-     * @param isScanFileContent 是否读取文件内容
+     * @param isScanFileContent 是否读取文件内容（设置内容句柄，见{@link FileDTO#getContentHandle()}）
      * @return
      */
     public Optional<DirectoryDTO> scanDirectory(Path path, boolean isScanFileContent, 
             @Nullable Function<DirectoryEntryDTO, DirectoryEntryDTO> directoryHandler,
             @Nullable Function<FileDTO, FileDTO> fileHandler) {
-        if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+        BasicFileAttributes dirAttributes = readAttributes(path, "路径指向的目录不存在");
+        if (!dirAttributes.isDirectory()) {
             throw new IllegalArgumentException("路径指向的目录不存在");
         }
         DirectoryDTO directoryDTO = new DirectoryDTO();
         // 填充子条目信息
+        List<DirectoryEntryDTO> entries = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+            for (Path entryPath : stream) {
+                BasicFileAttributes attributes = Files.readAttributes(entryPath, BasicFileAttributes.class, 
+                        LinkOption.NOFOLLOW_LINKS);
+                if (attributes.isDirectory()) {
+                    DirectoryEntryDTO directoryEntryDTO = buildEntryDTO(entryPath, attributes, 
+                            DirectoryEntryDTO.class);
+                    // 后处理
+                    entries.add(Optional.ofNullable(directoryHandler)
+                            .map(handler -> handler.apply(directoryEntryDTO)).orElse(directoryEntryDTO));
+                } else {
+                    FileDTO fileDTO = buildFileDTO(entryPath, attributes, isScanFileContent);
+                    // 后处理
+                    entries.add(Optional.ofNullable(fileHandler)
+                            .map(handler -> handler.apply(fileDTO)).orElse(fileDTO));
+                }
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            throw new WrapperException(e);
+        }
+        directoryDTO.setEntries(entries);
+        // 填充目录本身的信息
+        fillDirectoryEntryInfo(path, dirAttributes, directoryDTO);
+        return Optional.of(directoryDTO);
+    }
+    
+    /**
+     * 递归地扫描目录，得到完整的目录层级：子目录为{@link DirectoryDTO}，超过最大深度的子目录为未展开的
+     * {@link DirectoryEntryDTO}
+     * 
+     * <p>每个目录将作为一个ForkJoin任务扫描，各子目录并行扫描，结果中条目的顺序与列出目录的顺序一致。
+     * 默认不会因单个条目的错误（如AccessDeniedException）中止扫描，而是将错误记录到所在目录的errors中，见{@link ScanOptions}
+     * 
+     * @param root 根目录
+     * @param options 扫描参数
+     * @since 2026.10.18
+     */
+    public Optional<DirectoryDTO> scanTree(Path root, ScanOptions options) {
+        return Optional.of(scanTree(root, options, null, null));
+    }
+    
+    /**
+     * 增量地扫描目录：与{@link #scanTree(Path, ScanOptions)}相同，但修改时间未变的目录将直接使用缓存的子条目，
+     * 只需读取子目录的属性；目录不变时，重复扫描的开销约为每个目录一次stat
+     * 
+     * <p>扫描后将更新缓存，可通过{@link ScanCache#save(Path)}保存以用于下次扫描。结果中包含与缓存相比的变化，
+     * 缓存中没有记录的目录（如首次扫描）不会报告变化，新增/删除的目录只报告目录本身。
+     * 修改已有文件的内容不会改变目录的修改时间，因此不一定能被发现，见{@link ScanCache}
+     * 
+     * @param root 根目录
+     * @param options 扫描参数
+     * @param cache 缓存，将被更新
+     * @since 2026.10.18
+     */
+    public RescanResult rescan(Path root, ScanOptions options, ScanCache cache) {
+        Queue<FileChangeEvent> changes = new ConcurrentLinkedQueue<>();
+        DirectoryDTO tree = scanTree(root, options, cache, changes);
+        return new RescanResult(tree, new ArrayList<>(changes));
+    }
+    
+    private DirectoryDTO scanTree(Path root, ScanOptions options, @Nullable ScanCache cache, 
+            @Nullable Queue<FileChangeEvent> changes) {
+        if (options.getMaxDepth() < 1) {
+            throw new IllegalArgumentException("最大深度需不小于1：" + options.getMaxDepth());
+        }
+        BasicFileAttributes attributes = options.isFollowLinks() ? readAttributes(root, "路径指向的目录不存在", true)
+                : readAttributes(root, "路径指向的目录不存在");
+        if (!attributes.isDirectory()) {
+            throw new IllegalArgumentException("路径指向的目录不存在");
+        }
+        ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
         try {
-            List<DirectoryEntryDTO> entries = Files.list(path)
-                    .map(entryPath -> {
-                        if (Files.isDirectory(entryPath, LinkOption.NOFOLLOW_LINKS)) {
-                            DirectoryEntryDTO directoryEntryDTO = this.scanDirectoryEntry(entryPath).get();
-                            // 后处理
-                            return Optional.ofNullable(directoryHandler)
-                                    .map(handler -> handler.apply(directoryEntryDTO)).orElse(directoryEntryDTO);
-                        } else {
-                            FileDTO fileDTO = this.scanFile(entryPath, isScanFileContent).get();
-                            // 后处理
-                            return Optional.ofNullable(fileHandler)
-                                    .map(handler -> handler.apply(fileDTO)).orElse(fileDTO);
+            Ancestor ancestor = options.isFollowLinks() ? new Ancestor(fileKey(root, attributes), null) : null;
+            return pool.invoke(new ScanTreeTask(root, attributes, 0, options, ancestor, cache, changes));
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * 扫描单个目录的任务：构建目录下的条目，并为每个需要展开的子目录派生子任务
+     */
+    private class ScanTreeTask extends RecursiveTask<DirectoryDTO> {
+        private static final long serialVersionUID = 1L;
+        private final Path dir;
+        private final BasicFileAttributes attributes;
+        private final int depth;
+        private final ScanOptions options;
+        /** 追踪链接时，用于识别循环的祖先目录 */
+        private final Ancestor ancestor;
+        /** 增量扫描时的缓存及变化，非增量扫描时为空 */
+        private final ScanCache cache;
+        private final Queue<FileChangeEvent> changes;
+        
+        ScanTreeTask(Path dir, BasicFileAttributes attributes, int depth, ScanOptions options, Ancestor ancestor,
+                ScanCache cache, Queue<FileChangeEvent> changes) {
+            this.dir = dir;
+            this.attributes = attributes;
+            this.depth = depth;
+            this.options = options;
+            this.ancestor = ancestor;
+            this.cache = cache;
+            this.changes = changes;
+        }
+
+        @Override
+        protected DirectoryDTO compute() {
+            DirectoryDTO directoryDTO = buildEntryDTO(dir, attributes, DirectoryDTO.class);
+            List<DirectoryEntryDTO> entries = new ArrayList<>();
+            List<String> errors = new ArrayList<>();
+            // 子任务及其结果在entries中的位置
+            List<Pair<Integer, ScanTreeTask>> subTasks = new ArrayList<>();
+            ScanCache.Directory cached = cache == null ? null : cache.get(dir, attributes.lastModifiedTime());
+            if (cached != null) {
+                // 目录未变化，文件使用缓存的属性，子目录仍需读取属性以判断其是否变化
+                for (ScanCache.Entry cachedEntry : cached.getEntries()) {
+                    Path entryPath = dir.resolve(cachedEntry.getName());
+                    try {
+                        addEntry(entryPath, cachedEntry.isDirectory() ? readEntryAttributes(entryPath) 
+                                : cachedEntry.toAttributes(), entries, subTasks);
+                    } catch (IOException | WrapperException e) {
+                        onError(entryPath, e, errors);
+                    }
+                }
+            } else {
+                List<ScanCache.Entry> scanned = cache == null ? null : new ArrayList<>();
+                long scannedAt = System.currentTimeMillis();
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                    for (Path entryPath : stream) {
+                        try {
+                            BasicFileAttributes entryAttributes = readEntryAttributes(entryPath);
+                            if (scanned != null) {
+                                scanned.add(ScanCache.Entry.of(entryPath.getFileName().toString(), entryAttributes));
+                            }
+                            addEntry(entryPath, entryAttributes, entries, subTasks);
+                        } catch (IOException | WrapperException e) {
+                            onError(entryPath, e, errors);
                         }
-                    })
-                    .collect(Collectors.toList());
+                    }
+                } catch (IOException | DirectoryIteratorException e) {
+                    onError(dir, e, errors);
+                    // 未能完整列出目录，不更新缓存
+                    scanned = null;
+                }
+                if (scanned != null) {
+                    diff(cache.get(dir), scanned);
+                    cache.put(dir, new ScanCache.Directory(attributes.lastModifiedTime().toMillis(), scannedAt,
+                            scanned));
+                }
+            }
+            for (Pair<Integer, ScanTreeTask> subTask : subTasks) {
+                entries.set(subTask.getFirst(), subTask.getSecond().join());
+            }
             directoryDTO.setEntries(entries);
+            directoryDTO.setErrors(errors);
+            return directoryDTO;
+        }
+        
+        /** 构建条目；需要展开的子目录将派生子任务，结果在子任务完成后填入 */
+        private void addEntry(Path entryPath, BasicFileAttributes entryAttributes, List<DirectoryEntryDTO> entries,
+                List<Pair<Integer, ScanTreeTask>> subTasks) throws IOException {
+            if (!entryAttributes.isDirectory()) {
+                entries.add(buildFileDTO(entryPath, entryAttributes, options.isScanFileContent()));
+            } else if (depth + 1 >= options.getMaxDepth()) {
+                entries.add(buildEntryDTO(entryPath, entryAttributes, DirectoryEntryDTO.class));
+            } else {
+                Ancestor child = null;
+                if (ancestor != null) {
+                    Object key = fileKey(entryPath, entryAttributes);
+                    if (ancestor.contains(key)) {
+                        throw new FileSystemLoopException(entryPath.toString());
+                    }
+                    child = new Ancestor(key, ancestor);
+                }
+                ScanTreeTask subTask = new ScanTreeTask(entryPath, entryAttributes, depth + 1, options, child, 
+                        cache, changes);
+                subTask.fork();
+                subTasks.add(Pair.of(entries.size(), subTask));
+                entries.add(null);
+            }
+        }
+        
+        /**
+         * 对比缓存与本次列出的子条目，记录变化；缓存中没有该目录时不记录。删除的子目录将同时移除其缓存
+         */
+        private void diff(@Nullable ScanCache.Directory old, List<ScanCache.Entry> scanned) {
+            if (old == null) {
+                return;
+            }
+            Map<String, ScanCache.Entry> oldEntries = old.byName();
+            for (ScanCache.Entry entry : scanned) {
+                ScanCache.Entry oldEntry = oldEntries.remove(entry.getName());
+                Path path = dir.resolve(entry.getName());
+                if (oldEntry != null && oldEntry.isDirectory() == entry.isDirectory()) {
+                    if (!entry.isDirectory() && (oldEntry.getSize() != entry.getSize() 
+                            || oldEntry.getLastModifiedTime() != entry.getLastModifiedTime())) {
+                        changes.add(new FileChangeEvent(FileChangeEvent.Kind.MODIFY, path, false));
+                    }
+                    continue;
+                }
+                if (oldEntry != null) {
+                    // 类型改变，视为删除后新增
+                    removed(path, oldEntry);
+                }
+                changes.add(new FileChangeEvent(FileChangeEvent.Kind.CREATE, path, entry.isDirectory()));
+            }
+            for (ScanCache.Entry oldEntry : oldEntries.values()) {
+                removed(dir.resolve(oldEntry.getName()), oldEntry);
+            }
+        }
+        
+        private void removed(Path path, ScanCache.Entry oldEntry) {
+            changes.add(new FileChangeEvent(FileChangeEvent.Kind.DELETE, path, oldEntry.isDirectory()));
+            if (oldEntry.isDirectory()) {
+                cache.invalidateTree(path);
+            }
+        }
+        
+        /** 追踪链接时，链接失效则读取链接本身的属性 */
+        private BasicFileAttributes readEntryAttributes(Path path) throws IOException {
+            if (options.isFollowLinks()) {
+                try {
+                    return Files.readAttributes(path, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    // 失效的链接
+                }
+            }
+            return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        }
+        
+        private void onError(Path path, Exception e, List<String> errors) {
+            if (options.isFailFast()) {
+                throw e instanceof WrapperException ? (WrapperException) e : new WrapperException(e);
+            }
+            log.warn("扫描失败 {}：{}", path, e.toString());
+            errors.add(path + "：" + (e instanceof WrapperException && e.getCause() != null ? e.getCause() : e));
+        }
+    }
+    
+    /** 条目的唯一标识，用于识别链接形成的循环；文件系统不支持时使用真实路径 */
+    private static Object fileKey(Path path, BasicFileAttributes attributes) throws IOException {
+        return attributes.fileKey() != null ? attributes.fileKey() : path.toRealPath();
+    }
+    
+    /** 祖先目录链 */
+    @AllArgsConstructor
+    private static class Ancestor {
+        private final Object key;
+        private final Ancestor parent;
+        
+        boolean contains(Object key) {
+            for (Ancestor ancestor = this; ancestor != null; ancestor = ancestor.parent) {
+                if (ancestor.key.equals(key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+    
+    /**
+     * 以流的方式扫描目录，逐个返回条目，不会将目录下的条目都保存在内存中；适用于条目数量巨大的目录，
+     * 内存占用只与当前打开的目录数及待扫描的子目录数有关
+     * 
+     * <p>子目录为{@link DirectoryEntryDTO}，文件为不含内容的{@link FileDTO}，不追踪链接；条目的顺序不确定。
+     * 递归扫描时支持并行地消费（{@link Stream#parallel()}），分割时将把待扫描的子目录交给新的分割。
+     * 无法读取的子目录/条目将被跳过。使用完毕后需关闭流，以关闭打开的目录
+     * 
+     * @param dir 目录
+     * @param recursive 是否递归扫描子目录
+     * @since 2026.10.18
+     */
+    public Stream<DirectoryEntryDTO> stream(Path dir, boolean recursive) {
+        if (!readAttributes(dir, "路径指向的目录不存在").isDirectory()) {
+            throw new IllegalArgumentException("路径指向的目录不存在");
+        }
+        EntrySpliterator spliterator = new EntrySpliterator(recursive, ConcurrentHashMap.newKeySet());
+        try {
+            spliterator.open(dir);
         } catch (IOException e) {
             throw new WrapperException(e);
         }
-        // 填充目录本身的信息
-        fillDirectoryEntryInfo(path, directoryDTO);
-        return Optional.of(directoryDTO);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::closeAll);
+    }
+    
+    /**
+     * 逐个扫描目录条目的Spliterator；递归扫描时，以栈保存待扫描的子目录（深度优先）
+     * 
+     * <p>分割时优先交出栈底的一半子目录，即层级较浅、通常含有较多条目的目录；没有待扫描的子目录时，
+     * 则从当前目录中取出一批未读取的条目交给新的分割，使单个大目录也能并行地读取属性
+     */
+    private class EntrySpliterator implements Spliterator<DirectoryEntryDTO> {
+        /** 分割当前目录时，每次交出的条目数 */
+        private static final int SPLIT_BATCH = 1024;
+        private final boolean recursive;
+        /** 同一个流的所有分割打开的目录，用于关闭流时关闭 */
+        private final Set<DirectoryStream<Path>> opened;
+        /** 已列出但未读取属性的条目 */
+        private final Deque<Path> batch = new ArrayDeque<>();
+        private final Deque<Path> pending = new ArrayDeque<>();
+        private DirectoryStream<Path> current;
+        private Iterator<Path> iterator;
+        
+        EntrySpliterator(boolean recursive, Set<DirectoryStream<Path>> opened) {
+            this.recursive = recursive;
+            this.opened = opened;
+        }
+        
+        void open(Path dir) throws IOException {
+            current = Files.newDirectoryStream(dir);
+            opened.add(current);
+            iterator = current.iterator();
+        }
+        
+        @Override
+        public boolean tryAdvance(Consumer<? super DirectoryEntryDTO> action) {
+            while (true) {
+                Path path = batch.pollFirst();
+                if (path == null && current != null) {
+                    path = nextPath();
+                    if (path == null) {
+                        closeCurrent();
+                    }
+                }
+                if (path != null) {
+                    DirectoryEntryDTO entry = build(path);
+                    if (entry != null) {
+                        action.accept(entry);
+                        return true;
+                    }
+                    continue;
+                }
+                Path dir = pending.pollLast();
+                if (dir == null) {
+                    return false;
+                }
+                try {
+                    open(dir);
+                } catch (IOException e) {
+                    log.warn("无法打开目录 {}：{}", dir, e.toString());
+                }
+            }
+        }
+        
+        private Path nextPath() {
+            try {
+                return iterator.hasNext() ? iterator.next() : null;
+            } catch (DirectoryIteratorException e) {
+                log.warn("遍历目录失败：{}", e.getCause().toString());
+                return null;
+            }
+        }
+        
+        /** 构建条目，失败时返回空 */
+        private DirectoryEntryDTO build(Path path) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, 
+                        LinkOption.NOFOLLOW_LINKS);
+                if (attributes.isDirectory()) {
+                    if (recursive) {
+                        pending.addLast(path);
+                    }
+                    return buildEntryDTO(path, attributes, DirectoryEntryDTO.class);
+                }
+                return buildFileDTO(path, attributes, false);
+            } catch (IOException e) {
+                log.warn("无法读取 {}：{}", path, e.toString());
+                return null;
+            }
+        }
+        
+        private void closeCurrent() {
+            opened.remove(current);
+            try {
+                current.close();
+            } catch (IOException e) {
+                log.warn("关闭目录失败：{}", e.toString());
+            }
+            current = null;
+            iterator = null;
+        }
+        
+        @Override
+        public Spliterator<DirectoryEntryDTO> trySplit() {
+            EntrySpliterator split = new EntrySpliterator(recursive, opened);
+            if (pending.size() > 1 || (!pending.isEmpty() && (current != null || !batch.isEmpty()))) {
+                for (int i = 0, n = (pending.size() + 1) / 2; i < n; i++) {
+                    split.pending.addLast(pending.pollFirst());
+                }
+            } else if (current != null) {
+                Path path;
+                while (split.batch.size() < SPLIT_BATCH && (path = nextPath()) != null) {
+                    split.batch.addLast(path);
+                }
+                if (split.batch.size() < SPLIT_BATCH) {
+                    closeCurrent();
+                }
+            } else if (batch.size() > 1) {
+                for (int i = 0, n = batch.size() / 2; i < n; i++) {
+                    split.batch.addLast(batch.pollFirst());
+                }
+            }
+            return split.pending.isEmpty() && split.batch.isEmpty() ? null : split;
+        }
+        
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+        
+        @Override
+        public int characteristics() {
+            return NONNULL | DISTINCT;
+        }
+        
+        /** 关闭所有分割打开的目录 */
+        void closeAll() {
+            for (DirectoryStream<Path> stream : opened) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    log.warn("关闭目录失败：{}", e.toString());
+                }
+            }
+            opened.clear();
+        }
     }
     
     /**
@@ -192,28 +614,58 @@ public class DiskScanner {
      * @return
      */
     public <T extends DirectoryEntryDTO> Optional<T> scanDirectoryEntry(Path path, Class<T> targetClass) {
+        return Optional.of(buildEntryDTO(path, readAttributes(path), targetClass));
+    }
+    
+    private <T extends DirectoryEntryDTO> T buildEntryDTO(Path path, BasicFileAttributes attributes, 
+            Class<T> targetClass) {
         T entryDTO = null;
         try {
             entryDTO = targetClass.newInstance();
         } catch (InstantiationException | IllegalAccessException e) {
             throw new WrapperException(e);
         }
-        fillDirectoryEntryInfo(path, entryDTO);
-        
-        return Optional.of(entryDTO);
+        fillDirectoryEntryInfo(path, attributes, entryDTO);
+        return entryDTO;
     }
     
-    private void fillDirectoryEntryInfo(Path path, DirectoryEntryDTO entryDTO) {
-        entryDTO.setRealPath(path);
-        // 读取文件基本属性
-        BasicFileAttributeView fileAttributeView = 
-                Files.getFileAttributeView(path, BasicFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
-        BasicFileAttributes attributes = null;
+    /** 读取条目的基本属性，不追踪链接 */
+    private BasicFileAttributes readAttributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        }
+    }
+    
+    /**
+     * 读取条目的基本属性，不追踪链接
+     * 
+     * @param notExistsMessage 路径不存在时抛出的IllegalArgumentException的信息
+     */
+    private BasicFileAttributes readAttributes(Path path, String notExistsMessage) {
+        return readAttributes(path, notExistsMessage, false);
+    }
+    
+    /**
+     * 读取条目的基本属性
+     * 
+     * @param notExistsMessage 路径不存在时抛出的IllegalArgumentException的信息
+     * @param followLinks 是否追踪链接
+     */
+    private BasicFileAttributes readAttributes(Path path, String notExistsMessage, boolean followLinks) {
         try {
-            attributes = fileAttributeView.readAttributes();
+            return followLinks ? Files.readAttributes(path, BasicFileAttributes.class)
+                    : Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            throw new IllegalArgumentException(notExistsMessage);
         } catch (IOException e) {
             throw new WrapperException(e);
         }
+    }
+    
+    private void fillDirectoryEntryInfo(Path path, BasicFileAttributes attributes, DirectoryEntryDTO entryDTO) {
+        entryDTO.setRealPath(path);
         // 2. 根据文件信息，填充DTO
         // 设置路径，若有绝对路径则屏蔽掉绝对路径 TODO 这里其实还需要一层是否为绝对路径子路径的判断。。。
         setViewablePathPath(path, entryDTO);
@@ -0,0 +1,24 @@
+package indi.scanner;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import indi.data.dto.DirectoryDTO;
+import indi.io.FileChangeEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 增量扫描的结果，见{@link DiskScanner#rescan(Path, ScanOptions, ScanCache)}
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+@Getter
+@AllArgsConstructor
+public class RescanResult {
+    /** 完整的目录层级，与{@link DiskScanner#scanTree(Path, ScanOptions)}的结果相同 */
+    private final DirectoryDTO tree;
+    /** 与缓存相比的变化，顺序不确定 */
+    private final List<FileChangeEvent> changes;
+}
@@ -0,0 +1,219 @@
+package indi.scanner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import indi.bean.ObjectMapperUtils;
+import indi.exception.WrapperException;
+import indi.io.DirSizeCache;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 增量扫描的缓存，用于{@link DiskScanner#rescan(Path, ScanOptions, ScanCache)}，线程安全
+ *
+ * <p>以目录为单位缓存其修改时间及子条目的属性，可通过{@link #save(Path)}以json格式保存到文件，
+ * 通过{@link #load(Path)}读取。目录的修改时间未变时，子条目直接使用缓存，只需读取子目录的属性以判断子目录是否变化
+ *
+ * <p>注意：目录的修改时间只在其下条目被新增、删除、重命名时改变，修改已有文件的内容不会使缓存失效，
+ * 此时需调用{@link #invalidate(Path)}或{@link #clear()}
+ *
+ * <p>修改时间的精度有限（如FAT为2秒），列出目录的同时或稍后发生的变化可能不改变修改时间。因此缓存同时记录开始列出目录的时间，
+ * 修改时间不早于该时间减去{@link #TIMESTAMP_GRANULARITY_MILLIS}的目录，其缓存不可信，下次扫描时仍将重新列出
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+public class ScanCache {
+    private static final TypeReference<ConcurrentHashMap<String, Directory>> TYPE_REF =
+            new TypeReference<ConcurrentHashMap<String, Directory>>() {};
+    /** 修改时间的最大精度，与{@link DirSizeCache#TIMESTAMP_GRANULARITY_MILLIS}相同 */
+    static final long TIMESTAMP_GRANULARITY_MILLIS = DirSizeCache.TIMESTAMP_GRANULARITY_MILLIS;
+    /** 目录的绝对路径 -> 缓存 */
+    private final ConcurrentHashMap<String, Directory> directories;
+
+    public ScanCache() {
+        this(new ConcurrentHashMap<>());
+    }
+
+    private ScanCache(ConcurrentHashMap<String, Directory> directories) {
+        this.directories = directories;
+    }
+
+    /**
+     * 从文件中读取缓存，文件不存在时返回空的缓存
+     */
+    public static ScanCache load(Path file) {
+        try {
+            return new ScanCache(ObjectMapperUtils.getMapper().readValue(Files.readAllBytes(file), TYPE_REF));
+        } catch (NoSuchFileException e) {
+            return new ScanCache();
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        }
+    }
+
+    /**
+     * 保存到文件，将先写入临时文件再替换，避免中断时损坏已有的缓存文件
+     */
+    public void save(Path file) {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            ObjectMapperUtils.getMapper().writeValue(temp.toFile(), directories);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        }
+    }
+
+    /**
+     * 获取缓存，修改时间不一致，或修改时间与列出目录的时间过于接近、无法确定列出后是否有变化时视为无效，返回null
+     */
+    Directory get(Path dir, FileTime lastModifiedTime) {
+        Directory directory = directories.get(key(dir));
+        return directory != null && directory.lastModified == lastModifiedTime.toMillis()
+                && directory.lastModified < directory.scannedAt - TIMESTAMP_GRANULARITY_MILLIS ? directory : null;
+    }
+
+    /** 获取缓存，不校验修改时间 */
+    Directory get(Path dir) {
+        return directories.get(key(dir));
+    }
+
+    void put(Path dir, Directory directory) {
+        directories.put(key(dir), directory);
+    }
+
+    /** 移除指定目录的缓存 */
+    public void invalidate(Path dir) {
+        directories.remove(key(dir));
+    }
+
+    /** 移除指定目录及其下所有子目录的缓存 */
+    public void invalidateTree(Path dir) {
+        String key = key(dir);
+        String prefix = key.endsWith(dir.getFileSystem().getSeparator()) ? key
+                : key + dir.getFileSystem().getSeparator();
+        directories.keySet().removeIf(k -> k.equals(key) || k.startsWith(prefix));
+    }
+
+    public void clear() {
+        directories.clear();
+    }
+
+    /** 已缓存的目录数 */
+    public int size() {
+        return directories.size();
+    }
+
+    private static String key(Path dir) {
+        return dir.toAbsolutePath().normalize().toString();
+    }
+
+    /** 目录的缓存 */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Directory {
+        /** 目录的修改时间，毫秒 */
+        private long lastModified;
+        /** 开始列出目录的时间，毫秒；旧版本的缓存文件中没有该字段，读取为0，即缓存均不可信 */
+        private long scannedAt;
+        private List<Entry> entries;
+
+        /** 以名称索引子条目 */
+        Map<String, Entry> byName() {
+            Map<String, Entry> map = new HashMap<>(entries.size() * 2);
+            entries.forEach(entry -> map.put(entry.name, entry));
+            return map;
+        }
+    }
+
+    /** 子条目的缓存 */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Entry {
+        private String name;
+        private boolean directory;
+        private boolean regularFile;
+        private long size;
+        /** 创建时间、最后访问时间、最后修改时间，毫秒 */
+        private long creationTime;
+        private long lastAccessTime;
+        private long lastModifiedTime;
+
+        static Entry of(String name, BasicFileAttributes attributes) {
+            return new Entry(name, attributes.isDirectory(), attributes.isRegularFile(), attributes.size(),
+                    attributes.creationTime().toMillis(), attributes.lastAccessTime().toMillis(),
+                    attributes.lastModifiedTime().toMillis());
+        }
+
+        /** 以缓存的属性作为文件属性，用于构建DTO */
+        @JsonIgnore
+        BasicFileAttributes toAttributes() {
+            return new BasicFileAttributes() {
+                @Override
+                public FileTime lastModifiedTime() {
+                    return FileTime.fromMillis(lastModifiedTime);
+                }
+
+                @Override
+                public FileTime lastAccessTime() {
+                    return FileTime.fromMillis(lastAccessTime);
+                }
+
+                @Override
+                public FileTime creationTime() {
+                    return FileTime.fromMillis(creationTime);
+                }
+
+                @Override
+                public boolean isRegularFile() {
+                    return regularFile;
+                }
+
+                @Override
+                public boolean isDirectory() {
+                    return directory;
+                }
+
+                @Override
+                public boolean isSymbolicLink() {
+                    return false;
+                }
+
+                @Override
+                public boolean isOther() {
+                    return !regularFile && !directory;
+                }
+
+                @Override
+                public long size() {
+                    return size;
+                }
+
+                @Override
+                public Object fileKey() {
+                    return null;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package indi.scanner;
+
+import java.nio.file.Path;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * {@link DiskScanner#scanTree(Path, ScanOptions)}的参数
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+@Getter
+@Builder
+public class ScanOptions {
+    /** 并行度，即同时扫描的目录数，默认为CPU核数 */
+    @Builder.Default
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    /** 最大深度，1表示只扫描根目录下的条目，更深的子目录不再展开 */
+    @Builder.Default
+    private int maxDepth = Integer.MAX_VALUE;
+    /** 是否追踪符号链接；追踪时将展开指向目录的链接，并跳过形成循环的链接 */
+    @Builder.Default
+    private boolean followLinks = false;
+    /** 是否读取文件内容，即设置文件内容的句柄，见{@link indi.data.dto.FileDTO#getContentHandle()} */
+    @Builder.Default
+    private boolean scanFileContent = false;
+    /** 是否在出现第一个错误时中止扫描；默认不中止，而是将错误记录到所在目录的{@code errors}中并跳过该条目 */
+    @Builder.Default
+    private boolean failFast = false;
+
+    /** 默认参数 */
+    public static ScanOptions defaults() {
+        return builder().build();
+    }
+}
@@ -3,14 +3,18 @@
  */
 package indi.util;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
-import java.util.Objects;
 import java.util.zip.CRC32;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
 import indi.exception.WrapperException;
+import indi.io.ChunkedFileReader;
 import indi.io.FileUtils;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
@@ -23,6 +27,10 @@ import lombok.NoArgsConstructor;
  */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class CheckUtils {
+    /** 计算校验码时，每次读取的块大小 */
+    private static final int CHECKSUM_CHUNK_SIZE = 256 * 1024;
+    /** 比较文件时，每次读取的块大小 */
+    private static final int COMPARE_BUFFER_SIZE = 64 * 1024;
 
     /**
      * 校验路径是否指向文件，存在报错只报第一个路径的问题
@@ -50,25 +58,80 @@ public class CheckUtils {
         checkFile(path);
         // 计算CRC32值
         CRC32 crc32 = new CRC32();
-        ByteBuffer buffer = ByteBuffer.allocate(2048);
-        try (FileChannel fc = FileChannel.open(path)) {
-            while (fc.read(buffer) > -1) {
-                buffer.flip();
-                crc32.update(buffer);// 不断通过update方法传入字节数组，即可增量地更新CRC32码
-                buffer.clear();
+        // 以较大的直接缓存分块读取，不占用堆内存
+        try (ChunkedFileReader reader = FileUtils.readChunks(path, CHECKSUM_CHUNK_SIZE)) {
+            reader.forEach(crc32::update);// 不断通过update方法传入字节，即可增量地更新CRC32码
+        }
+
+        return Long.toString(crc32.getValue());
+    }
+    
+    /**
+     * 获取指定文件内容的128位MurmurHash3散列值（16进制字符串）。不用于加密，速度远快于MD5，碰撞概率可忽略，适合比较大量文件
+     * 
+     * @since 2026.10.18
+     */
+    public static String getMurmur3(Path path) {
+        checkFile(path);
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        try (ChunkedFileReader reader = FileUtils.readChunks(path, CHECKSUM_CHUNK_SIZE)) {
+            reader.forEach(hasher::putBytes);
+        }
+        return hasher.hash().toString();
+    }
+    
+    /**
+     * 获取文件的抽样散列值：只读取文件开头及末尾各sampleSize个字节，与文件大小一起计算散列值。
+     * 内容不同的文件可能有相同的抽样散列值，但抽样散列值不同的文件内容必定不同；用于快速排除不同的文件
+     * 
+     * <p>文件大小不超过2 * sampleSize时将读取整个文件，此时结果与文件内容一一对应
+     * 
+     * @param sampleSize 开头及末尾各读取的字节数
+     * @since 2026.10.18
+     */
+    public static String getSampleHash(Path path, int sampleSize) {
+        checkFile(path);
+        try (FileChannel channel = FileChannel.open(path)) {
+            long size = channel.size();
+            ByteBuffer buffer;
+            if (size <= 2L * sampleSize) {
+                buffer = ByteBuffer.allocate((int) size);
+                readFully(channel, buffer, 0);
+            } else {
+                buffer = ByteBuffer.allocate(2 * sampleSize);
+                buffer.limit(sampleSize);
+                readFully(channel, buffer, 0);
+                buffer.limit(2 * sampleSize);
+                readFully(channel, buffer, size - sampleSize);
             }
+            buffer.flip();
+            return Hashing.murmur3_128().newHasher()
+                    .putLong(size)
+                    .putBytes(buffer)
+                    .hash().toString();
         } catch (IOException e) {
             throw new WrapperException(e);
         }
-
-        return Long.toString(crc32.getValue());
+    }
+    
+    /** 从position开始读满缓存的剩余部分，文件提前结束时抛出异常 */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("读取过程中文件被截断");
+            }
+            position += read;
+        }
     }
     
     /**
-     * 比较文件是否完全相同，将逐个字节进行比较
+     * 比较文件是否完全相同，将逐块进行比较
      * 
      * <p>不确定比较相同的两个文件时，是该方法快，还是先计算crc32后再比较更快
      * 
+     * <p>2026.10.18 先比较文件大小；修复其中一个文件是另一个文件的前缀时返回0，以及单次读取不足时误判的问题
+     * 
      * @param p1
      * @param p2
      * @return 相同返回0，否则返回-1
@@ -76,23 +139,27 @@ public class CheckUtils {
      */
     public static int compare(Path p1, Path p2) {
         checkFile(p1, p2);
-        ByteBuffer buffer1 = ByteBuffer.allocate(2048);
-        ByteBuffer buffer2 = ByteBuffer.allocate(2048);
+        ByteBuffer buffer1 = ByteBuffer.allocate(COMPARE_BUFFER_SIZE);
+        ByteBuffer buffer2 = ByteBuffer.allocate(COMPARE_BUFFER_SIZE);
         // 通过缓存读取数据以提高性能，而不是真的获取一个字节比较一个字节（避免频繁不连续访问）
         try (FileChannel fc1 = FileChannel.open(p1); FileChannel fc2 = FileChannel.open(p2)) {
-            while (fc1.read(buffer1) > -1 && fc2.read(buffer2) > -1) {
+            long size = fc1.size();
+            if (size != fc2.size()) {
+                return -1;
+            }
+            for (long position = 0; position < size; position += buffer1.limit()) {
+                buffer1.clear();
+                buffer2.clear();
+                int length = (int) Math.min(COMPARE_BUFFER_SIZE, size - position);
+                buffer1.limit(length);
+                buffer2.limit(length);
+                readFully(fc1, buffer1, position);
+                readFully(fc2, buffer2, position);
                 buffer1.flip();
                 buffer2.flip();
-                if (buffer1.limit() != buffer2.limit()) {
+                if (!buffer1.equals(buffer2)) {
                     return -1;
                 }
-                while (buffer1.position() < buffer1.limit()) {
-                    if (!Objects.equals(buffer1.get(), buffer2.get())) {
-                        return -1;
-                    }
-                }
-                buffer1.clear();
-                buffer2.clear();
             }
         } catch (IOException e) {
             throw new WrapperException(e);
@@ -0,0 +1,252 @@
+package indi.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import indi.data.Pair;
+import indi.exception.WrapperException;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 查找内容相同的文件，逐级缩小候选范围，避免两两比较：
+ * <ol>
+ * <li>按文件大小分组，大小唯一的文件直接排除
+ * <li>计算抽样散列值（文件开头及末尾各{@link #sampleSize}字节），见{@link CheckUtils#getSampleHash(Path, int)}
+ * <li>只对仍有相同抽样散列值的大文件计算完整的散列值，见{@link CheckUtils#getMurmur3(Path)}
+ * <li>可选：逐字节比较，排除散列碰撞
+ * </ol>
+ * 第2~4步均在指定并行度的线程池中并行执行。读取失败的文件将被排除，并记录在结果中
+ *
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+@Getter
+@Builder
+public class DuplicateFinder {
+    /** 并行度，即同时读取文件的线程数，默认为CPU核数 */
+    @Builder.Default
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    /** 抽样散列时，开头及末尾各读取的字节数 */
+    @Builder.Default
+    private int sampleSize = 16 * 1024;
+    /** 小于该大小的文件不参与查找，默认跳过空文件 */
+    @Builder.Default
+    private long minSize = 1;
+    /** 是否在散列值相同后再逐字节比较 */
+    @Builder.Default
+    private boolean verifyBytes = false;
+
+    /** 默认参数 */
+    public static DuplicateFinder defaults() {
+        return builder().build();
+    }
+
+    /**
+     * 查找目录（递归）下内容相同的文件，不追踪符号链接
+     */
+    public Report find(Path root) {
+        Map<Long, List<Path>> bySize = new HashMap<>();
+        ConcurrentLinkedQueue<Pair<Path, Exception>> failures = new ConcurrentLinkedQueue<>();
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && attrs.size() >= minSize) {
+                        bySize.computeIfAbsent(attrs.size(), k -> new ArrayList<>(2)).add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    failures.add(Pair.of(file, exc));
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new WrapperException(e);
+        }
+        return execute(bySize, failures);
+    }
+
+    /**
+     * 查找给定文件中内容相同的文件，将并行读取文件大小
+     */
+    public Report find(Collection<Path> files) {
+        ConcurrentLinkedQueue<Pair<Path, Exception>> failures = new ConcurrentLinkedQueue<>();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Map<Long, List<Path>> bySize = pool.submit(() -> files.parallelStream()
+                    .map(file -> {
+                        try {
+                            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class,
+                                    LinkOption.NOFOLLOW_LINKS);
+                            return attrs.isRegularFile() && attrs.size() >= minSize ? Pair.of(attrs.size(), file)
+                                    : null;
+                        } catch (IOException e) {
+                            failures.add(Pair.of(file, e));
+                            return null;
+                        }
+                    })
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.groupingByConcurrent(Pair::getFirst,
+                            Collectors.mapping(Pair::getSecond, Collectors.toList()))))
+                    .join();
+            return execute(pool, bySize, failures);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Report execute(Map<Long, List<Path>> bySize, ConcurrentLinkedQueue<Pair<Path, Exception>> failures) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return execute(pool, bySize, failures);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Report execute(ForkJoinPool pool, Map<Long, List<Path>> bySize,
+            ConcurrentLinkedQueue<Pair<Path, Exception>> failures) {
+        List<Group> candidates = new ArrayList<>();
+        bySize.forEach((size, paths) -> {
+            if (paths.size() > 1) {
+                candidates.add(new Group(size, paths));
+            }
+        });
+        // 在线程池中执行，并行流将使用该线程池
+        List<Group> groups = pool.submit(() -> {
+            List<Group> sampled = refine(candidates, path -> CheckUtils.getSampleHash(path, sampleSize), failures);
+            // 抽样时已读取整个文件的小文件无需再计算完整的散列值
+            Map<Boolean, List<Group>> small = sampled.stream()
+                    .collect(Collectors.partitioningBy(group -> group.size <= 2L * sampleSize));
+            List<Group> result = new ArrayList<>(small.get(true));
+            result.addAll(refine(small.get(false), CheckUtils::getMurmur3, failures));
+            return verifyBytes ? verify(result, failures) : result;
+        }).join();
+        for (Group group : groups) {
+            group.paths.sort(Comparator.naturalOrder());
+        }
+        groups.sort(Comparator.comparingLong(Group::getWastedBytes).reversed());
+        return new Report(Collections.unmodifiableList(groups), new ArrayList<>(failures));
+    }
+
+    /**
+     * 并行计算所有候选文件的散列值，将每组按散列值再次分组，只保留仍有多个文件的组
+     */
+    private List<Group> refine(List<Group> groups, Function<Path, String> hashFun,
+            ConcurrentLinkedQueue<Pair<Path, Exception>> failures) {
+        Map<Pair<Long, String>, List<Path>> refined = groups.parallelStream()
+                .flatMap(group -> group.paths.stream().map(path -> Pair.of(group.size, path)))
+                .map(pair -> {
+                    Path path = pair.getSecond();
+                    try {
+                        return Pair.of(Pair.of(pair.getFirst(), hashFun.apply(path)), path);
+                    } catch (WrapperException | UncheckedIOException | IllegalArgumentException e) {
+                        // 读取失败或已被删除
+                        failures.add(Pair.of(path, e));
+                        return null;
+                    }
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingByConcurrent(Pair::getFirst,
+                        Collectors.mapping(Pair::getSecond, Collectors.toList())));
+        List<Group> result = new ArrayList<>();
+        refined.forEach((key, paths) -> {
+            if (paths.size() > 1) {
+                result.add(new Group(key.getFirst(), paths));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 逐字节比较，将每组拆分为内容完全相同的若干组
+     */
+    private List<Group> verify(List<Group> groups, ConcurrentLinkedQueue<Pair<Path, Exception>> failures) {
+        return groups.parallelStream()
+                .flatMap(group -> {
+                    List<List<Path>> classes = new ArrayList<>();
+                    for (Path path : group.paths) {
+                        try {
+                            List<Path> same = null;
+                            for (List<Path> clazz : classes) {
+                                if (CheckUtils.compare(clazz.get(0), path) == 0) {
+                                    same = clazz;
+                                    break;
+                                }
+                            }
+                            if (same == null) {
+                                same = new ArrayList<>();
+                                classes.add(same);
+                            }
+                            same.add(path);
+                        } catch (WrapperException | IllegalArgumentException e) {
+                            failures.add(Pair.of(path, e));
+                        }
+                    }
+                    return classes.stream()
+                            .filter(paths -> paths.size() > 1)
+                            .map(paths -> new Group(group.size, paths));
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 一组内容相同的文件
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Group {
+        /** 每个文件的大小 */
+        private final long size;
+        /** 按路径排序 */
+        private final List<Path> paths;
+
+        /** 只保留一个文件时可节省的空间 */
+        public long getWastedBytes() {
+            return size * (paths.size() - 1);
+        }
+    }
+
+    /**
+     * 查找结果
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Report {
+        /** 所有重复文件组，按可节省的空间从大到小排序 */
+        private final List<Group> groups;
+        /** 读取失败而被排除的文件 */
+        private final List<Pair<Path, Exception>> failures;
+
+        /** 删除重复文件后可节省的总空间 */
+        public long getWastedBytes() {
+            return groups.stream().mapToLong(Group::getWastedBytes).sum();
+        }
+    }
+}
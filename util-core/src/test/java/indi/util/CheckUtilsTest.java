@@ -3,13 +3,19 @@
  */
 package indi.util;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import indi.io.FileUtils;
 import indi.test.TestSeparateExtension;
 
 /**
@@ -34,5 +40,32 @@ class CheckUtilsTest {
         String crc32 = CheckUtils.getCRC32(Paths.get("e:", "file1"));
         System.out.println(crc32);
     }
+    
+    @Test
+    void compareTempFilesTest() throws IOException {
+        Path dir = Files.createTempDirectory("CheckUtilsTest");
+        try {
+            byte[] content = new byte[100 * 1024];
+            new Random(1).nextBytes(content);
+            Path p1 = Files.write(dir.resolve("p1"), content);
+            Path p2 = Files.write(dir.resolve("p2"), content);
+            // p1是p3的前缀
+            Path p3 = Files.write(dir.resolve("p3"), Arrays.copyOf(content, content.length + 1));
+            content[content.length - 1]++;
+            Path p4 = Files.write(dir.resolve("p4"), content);
+            
+            Assertions.assertEquals(0, CheckUtils.compare(p1, p2));
+            Assertions.assertEquals(-1, CheckUtils.compare(p1, p3));
+            Assertions.assertEquals(-1, CheckUtils.compare(p3, p1));
+            Assertions.assertEquals(-1, CheckUtils.compare(p1, p4));
+            
+            Assertions.assertEquals(CheckUtils.getMurmur3(p1), CheckUtils.getMurmur3(p2));
+            Assertions.assertNotEquals(CheckUtils.getMurmur3(p1), CheckUtils.getMurmur3(p4));
+            Assertions.assertEquals(CheckUtils.getSampleHash(p1, 1024), CheckUtils.getSampleHash(p2, 1024));
+            Assertions.assertNotEquals(CheckUtils.getSampleHash(p1, 1024), CheckUtils.getSampleHash(p4, 1024));
+        } finally {
+            FileUtils.clearDirectory(dir, true);
+        }
+    }
 
 }
@@ -0,0 +1,881 @@
+package indi.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessMode;
+import java.nio.file.CopyOption;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.FileAttributeView;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.UserPrincipalLookupService;
+import java.nio.file.spi.FileSystemProvider;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import indi.constant.DiskEntryType;
+import indi.data.dto.DirectoryDTO;
+import indi.data.dto.DirectoryEntryDTO;
+import indi.data.dto.FileDTO;
+import indi.exception.WrapperException;
+import indi.io.FileChangeEvent;
+import indi.io.FileContent;
+import indi.io.FileUtils;
+import indi.scanner.CatalogEntry;
+import indi.scanner.DiskCatalog;
+import indi.scanner.DiskScanner;
+import indi.scanner.RescanResult;
+import indi.scanner.ScanCache;
+import indi.scanner.ScanOptions;
+import indi.test.TestSeparateExtension;
+
+/**
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+@ExtendWith(TestSeparateExtension.class)
+class DiskScannerTest {
+
+    @Test
+    void scanTest() throws IOException {
+        Path dir = FileUtilsTest.createTree(1, 2, 3);
+        try {
+            DiskScanner scanner = new DiskScanner();
+            scanner.setAbsolutePath(dir);
+
+            FileDTO file = scanner.scanFile(dir.resolve("file1.txt")).get();
+            Assertions.assertEquals("file1.txt", file.getName());
+            Assertions.assertEquals("file1.txt", file.getPath());
+            Assertions.assertEquals(DiskEntryType.FILE, file.getType());
+            Assertions.assertEquals("content of 1", new String(file.getContent()));
+            Assertions.assertEquals(12L, file.getSize());
+            Assertions.assertNotNull(file.getLastModifiedTime());
+            Assertions.assertNull(scanner.scanFile(dir.resolve("file1.txt"), false).get().getContent());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> scanner.scanFile(dir.resolve("dir0")));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> scanner.scanFile(dir.resolve("notExists")));
+
+            DirectoryDTO directory = scanner.scanDirectory(dir, false).get();
+            Assertions.assertEquals(DiskEntryType.DIRECTORY, directory.getType());
+            Map<String, DirectoryEntryDTO> entries = directory.getEntries().stream()
+                    .collect(Collectors.toMap(DirectoryEntryDTO::getName, e -> e));
+            Assertions.assertEquals(5, entries.size());
+            Assertions.assertEquals(DiskEntryType.DIRECTORY, entries.get("dir0").getType());
+            Assertions.assertFalse(entries.get("dir0") instanceof FileDTO);
+            Assertions.assertEquals(12L, ((FileDTO) entries.get("file0.txt")).getSize());
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> scanner.scanDirectory(dir.resolve("file0.txt")));
+
+            Assertions.assertEquals(DiskEntryType.DIRECTORY,
+                    scanner.scanDirectoryEntry(dir.resolve("dir1")).get().getType());
+        } finally {
+            FileUtils.clearDirectory(dir, true);
+        }
+    }
+
+    @Test
+    void lazyContentTest() throws IOException {
+        Path dir = FileUtilsTest.createTree(0, 0, 2);
+        try {
+            DiskScanner scanner = new DiskScanner();
+            DirectoryDTO directory = scanner.scanDirectory(dir, true).get();
+            FileDTO file = (FileDTO) directory.getEntries().stream()
+                    .filter(e -> e.getName().equals("file0.txt")).findAny().get();
+            FileContent handle = file.getContentHandle();
+            Assertions.assertEquals(12, handle.getSize());
+            // 扫描时不读取文件，读取内容时才读取
+            Files.write(dir.resolve("file0.txt"), "changed".getBytes());
+            ByteBuffer buffer = handle.map();
+            Assertions.assertEquals(7, buffer.remaining());
+            Assertions.assertEquals("changed", StandardCharsets.UTF_8.decode(buffer).toString());
+            Assertions.assertEquals(7, handle.map().remaining());
+            try (InputStream in = handle.open()) {
+                Assertions.assertEquals('c', in.read());
+            }
+            handle.release();
+            Assertions.assertEquals("changed", new String(handle.bytes()));
+            Assertions.assertFalse(file.toString().contains("changed"));
+            Assertions.assertEquals("changed", new String(file.getContent()));
+            // 不保存读取的内容：每次调用都重新读取
+            Assertions.assertNotSame(file.getContent(), file.getContent());
+            Files.write(dir.resolve("file0.txt"), "changed again".getBytes());
+            Assertions.assertEquals("changed again", new String(file.getContent()));
+            Assertions.assertFalse(file.toString().contains("changed"));
+
+            String json = new ObjectMapper().writeValueAsString(file);
+            Assertions.assertFalse(json.contains("contentHandle"));
+            Assertions.assertTrue(json.contains("\"content\""));
+        } finally {
+            FileUtils.clearDirectory(dir, true);
+        }
+    }
+
+    @Test
+    void scanTreeTest() throws IOException {
+        Path dir = FileUtilsTest.createTree(3, 3, 5);
+        DiskScanner scanner = new DiskScanner();
+        try {
+            DirectoryDTO tree = scanner.scanTree(dir, ScanOptions.builder().parallelism(4).build()).get();
+            Assertions.assertEquals(200, count(tree, DiskEntryType.FILE));
+            Assertions.assertEquals(39, count(tree, DiskEntryType.DIRECTORY));
+            Assertions.assertTrue(tree.getErrors().isEmpty());
+            // 顺序与列出目录的顺序一致
+            Assertions.assertEquals(scanner.scanDirectory(dir, false).get().getEntries().stream()
+                    .map(DirectoryEntryDTO::getName).collect(Collectors.toList()),
+                    tree.getEntries().stream().map(DirectoryEntryDTO::getName).collect(Collectors.toList()));
+            Assertions.assertNull(((FileDTO) tree.getEntries().stream()
+                    .filter(e -> e.getType() == DiskEntryType.FILE).findAny().get()).getContent());
+
+            // 限制深度：第二层的子目录不再展开
+            DirectoryDTO shallow = scanner.scanTree(dir, ScanOptions.builder().maxDepth(2).build()).get();
+            Assertions.assertEquals(5 + 3 * 5, count(shallow, DiskEntryType.FILE));
+            Assertions.assertEquals(3 + 9, count(shallow, DiskEntryType.DIRECTORY));
+            DirectoryDTO dir0 = (DirectoryDTO) shallow.getEntries().stream()
+                    .filter(e -> e.getName().equals("dir0")).findAny().get();
+            Assertions.assertTrue(dir0.getEntries().stream()
+                    .filter(e -> e.getType() == DiskEntryType.DIRECTORY)
+                    .noneMatch(e -> e instanceof DirectoryDTO));
+
+            // 追踪链接时，形成循环的链接将被记录为错误，不会中止扫描
+            Path loop = Files.createSymbolicLink(dir.resolve("dir0").resolve("loop"), dir);
+            try {
+                DirectoryDTO followed = scanner.scanTree(dir, ScanOptions.builder().followLinks(true).build()).get();
+                Assertions.assertEquals(200, count(followed, DiskEntryType.FILE));
+                DirectoryDTO followedDir0 = (DirectoryDTO) followed.getEntries().stream()
+                        .filter(e -> e.getName().equals("dir0")).findAny().get();
+                Assertions.assertEquals(1, followedDir0.getErrors().size());
+                Assertions.assertTrue(followedDir0.getErrors().get(0).contains("FileSystemLoopException"));
+                Assertions.assertThrows(WrapperException.class, () -> scanner.scanTree(dir,
+                        ScanOptions.builder().followLinks(true).failFast(true).build()));
+                // 不追踪时，链接作为普通条目
+                Assertions.assertEquals(DiskEntryType.UNKNOWN, scanner.scanTree(dir, ScanOptions.defaults()).get()
+                        .getEntries().stream()
+                        .filter(e -> e.getName().equals("dir0")).findAny()
+                        .map(e -> ((DirectoryDTO) e).getEntries().stream()
+                                .filter(c -> c.getName().equals("loop")).findAny().get().getType())
+                        .get());
+            } finally {
+                Files.delete(loop);
+            }
+        } finally {
+            FileUtils.clearDirectory(dir, true);
+        }
+    }
+
+    @Test
+    void rescanTest() throws IOException, InterruptedException {
+        Path dir = FileUtilsTest.createTree(2, 2, 3);
+        Path cacheFile = Files.createTempFile("DiskScannerTest", ".json");
+        DiskScanner scanner = new DiskScanner();
+        try {
+            // 刚修改过的目录的缓存不可信，将目录的修改时间提前，使缓存生效
+            FileTime past = FileTime.fromMillis(System.currentTimeMillis() - 60000);
+            try (Stream<Path> paths = Files.walk(dir)) {
+                for (Path path : paths.filter(Files::isDirectory).collect(Collectors.toList())) {
+                    Files.setLastModifiedTime(path, past);
+                }
+            }
+            ScanCache cache = new ScanCache();
+            RescanResult first = scanner.rescan(dir, ScanOptions.defaults(), cache);
+            Assertions.assertTrue(first.getChanges().isEmpty());
+            Assertions.assertEquals(7, cache.size());
+            cache.save(cacheFile);
+            // 修改文件内容不改变目录的修改时间，缓存生效时结果中仍为缓存的大小
+            byte[] content = Files.readAllBytes(dir.resolve("file0.txt"));
+            FileTime fileTime = Files.getLastModifiedTime(dir.resolve("file0.txt"));
+            Files.write(dir.resolve("file0.txt"), "longer content".getBytes());
+
+            // 未变化时，结果与完整扫描相同
+            cache = ScanCache.load(cacheFile);
+            Assertions.assertEquals(7, cache.size());
+            RescanResult unchanged = scanner.rescan(dir, ScanOptions.defaults(), cache);
+            Assertions.assertTrue(unchanged.getChanges().isEmpty());
+            Assertions.assertEquals(21, count(unchanged.getTree(), DiskEntryType.FILE));
+            Assertions.assertEquals(6, count(unchanged.getTree(), DiskEntryType.DIRECTORY));
+            FileDTO cachedFile = (FileDTO) unchanged.getTree().getEntries().stream()
+                    .filter(e -> e.getName().equals("file0.txt")).findAny().get();
+            Assertions.assertEquals(12L, cachedFile.getSize());
+            Assertions.assertEquals(fileTime.toMillis(), cachedFile.getLastModifiedTime().getTime());
+            Files.write(dir.resolve("file0.txt"), content);
+
+            // 等待一段时间，使目录的修改时间与缓存不同
+            Thread.sleep(50);
+            Files.write(dir.resolve("dir0").resolve("new.txt"), "new".getBytes());
+            Files.write(dir.resolve("dir0").resolve("file0.txt"), "modified content".getBytes());
+            FileUtils.clearDirectory(dir.resolve("dir1").resolve("dir0"), true);
+            RescanResult changed = scanner.rescan(dir, ScanOptions.defaults(), cache);
+            Map<Path, FileChangeEvent> changes = changed.getChanges().stream()
+                    .collect(Collectors.toMap(FileChangeEvent::getPath, e -> e));
+            Assertions.assertEquals(3, changes.size());
+            Assertions.assertEquals(FileChangeEvent.Kind.CREATE,
+                    changes.get(dir.resolve("dir0").resolve("new.txt")).getKind());
+            Assertions.assertEquals(FileChangeEvent.Kind.MODIFY,
+                    changes.get(dir.resolve("dir0").resolve("file0.txt")).getKind());
+            FileChangeEvent deleted = changes.get(dir.resolve("dir1").resolve("dir0"));
+            Assertions.assertEquals(FileChangeEvent.Kind.DELETE, deleted.getKind());
+            Assertions.assertTrue(deleted.isDirectory());
+            Assertions.assertEquals(6, cache.size());
+            Assertions.assertEquals(19, count(changed.getTree(), DiskEntryType.FILE));
+
+            // 在修改时间的精度内再次修改目录，修改时间不变，但刚列出的目录不使用缓存，仍能发现变化
+            Path racyDir = dir.resolve("dir0");
+            FileTime racyTime = Files.getLastModifiedTime(racyDir);
+            Path racyFile = Files.write(racyDir.resolve("racy.txt"), "racy".getBytes());
+            Files.setLastModifiedTime(racyDir, racyTime);
+            List<FileChangeEvent> racy = scanner.rescan(dir, ScanOptions.defaults(), cache).getChanges();
+            Assertions.assertEquals(1, racy.size());
+            Assertions.assertEquals(racyFile, racy.get(0).getPath());
+            Assertions.assertEquals(FileChangeEvent.Kind.CREATE, racy.get(0).getKind());
+
+            Assertions.assertTrue(scanner.rescan(dir, ScanOptions.defaults(), cache).getChanges().isEmpty());
+        } finally {
+            Files.deleteIfExists(cacheFile);
+            FileUtils.clearDirectory(dir, true);
+        }
+    }
+
+    @Test
+    void streamTest() throws IOException {
+        Path dir = FileUtilsTest.createTree(3, 3, 5);
+        DiskScanner scanner = new DiskScanner();
+        try {
+            try (Stream<DirectoryEntryDTO> stream = scanner.stream(dir, false)) {
+                Assertions.assertEquals(8, stream.count());
+            }
+            try (Stream<DirectoryEntryDTO> stream = scanner.stream(dir, true)) {
+                Map<DiskEntryType, Long> counts = stream
+                        .collect(Collectors.groupingBy(DirectoryEntryDTO::getType, Collectors.counting()));
+                Assertions.assertEquals(200L, counts.get(DiskEntryType.FILE));
+                Assertions.assertEquals(39L, counts.get(DiskEntryType.DIRECTORY));
+            }
+            // 并行消费时，各分割的结果不重复、不遗漏
+            try (Stream<DirectoryEntryDTO> stream = scanner.stream(dir, true).parallel()) {
+                List<Path> paths = stream.map(DirectoryEntryDTO::getRealPath).collect(Collectors.toList());
+                Assertions.assertEquals(239, paths.size());
+                Assertions.assertEquals(239, paths.stream().distinct().count());
+            }
+            try (Stream<DirectoryEntryDTO> stream = scanner.stream(dir, true)) {
+                Assertions.assertNotNull(stream.spliterator().trySplit());
+            }
+            // 提前结束时，关闭流即关闭打开的目录
+            try (Stream<DirectoryEntryDTO> stream = scanner.stream(dir, true).parallel()) {
+                Assertions.assertTrue(stream.anyMatch(e -> e.getType() == DiskEntryType.FILE));
+            }
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> scanner.stream(dir.resolve("file0.txt"), true));
+        } finally {
+            FileUtils.clearDirectory(dir, true);
+        }
+    }
+
+    @Test
+    void catalogTest() throws IOException {
+        Path dir = Files.createTempDirectory("DiskScannerTest");
+        Path catalogFile = Files.createTempFile("DiskScannerTest", ".dcat");
+        try {
+            Files.write(dir.resolve("a.zip"), new byte[3000]);
+            Files.write(dir.resolve("b.ZIP"), new byte[10]);
+            Files.write(dir.resolve("photo_beach.jpg"), new byte[2000]);
+            Files.write(dir.resolve("notes.txt"), new byte[5]);
+            Files.write(dir.resolve("readme"), new byte[0]);
+            Files.write(dir.resolve(".hidden"), new byte[1]);
+            Files.write(Files.createDirectory(dir.resolve("sub")).resolve("beach_ball.png"), new byte[100]);
+            DiskScanner scanner = new DiskScanner();
+            scanner.setAbsolutePath(dir);
+            DirectoryDTO tree = scanner.scanTree(dir, ScanOptions.defaults()).get();
+            Assertions.assertEquals(8, DiskCatalog.write(catalogFile, tree));
+
+            DiskCatalog catalog = DiskCatalog.open(catalogFile);
+            try {
+                Assertions.assertEquals(8, catalog.size());
+                Assertions.assertEquals(Arrays.asList("b.ZIP", "a.zip"), names(catalog.findByExtension("zip")));
+                Assertions.assertEquals(Arrays.asList("a.zip"), names(catalog.find("ZIP", 1000, Long.MAX_VALUE, null)));
+                Assertions.assertTrue(catalog.findByExtension("hidden").isEmpty());
+                Assertions.assertEquals(Arrays.asList("beach_ball.png", "photo_beach.jpg"),
+                        names(catalog.findByName("BEACH")));
+                Assertions.assertEquals(Arrays.asList("beach_ball.png"), names(catalog.findByName("ch_b")));
+                Assertions.assertEquals(5, catalog.findByName("e").size());
+                Assertions.assertEquals(4, catalog.findBySize(0, 9).size());
+                Assertions.assertTrue(catalog.find("png", 0, 99, "beach").isEmpty());
+
+                CatalogEntry ball = catalog.findByName("ball").get(0);
+                Assertions.assertEquals(Paths.get("sub", "beach_ball.png").toString(), ball.getPath());
+                Assertions.assertEquals(DiskEntryType.FILE, ball.getType());
+                Assertions.assertEquals(100, ball.getSize());
+                Assertions.assertEquals(
+                        Files.getLastModifiedTime(dir.resolve("sub").resolve("beach_ball.png")).toMillis(),
+                        ball.getLastModified());
+                Assertions.assertEquals(DiskEntryType.DIRECTORY, catalog.findByName("sub").get(0).getType());
+            } finally {
+                // 覆盖文件前关闭，释放映射
+                catalog.close();
+            }
+            Assertions.assertThrows(IllegalStateException.class, () -> catalog.findByName("beach"));
+            catalog.close();
+
+            try (Stream<DirectoryEntryDTO> stream = scanner.stream(dir, true)) {
+                Assertions.assertEquals(8, DiskCatalog.write(catalogFile, stream));
+            }
+            try (DiskCatalog rewritten = DiskCatalog.open(catalogFile)) {
+                Assertions.assertEquals(2, rewritten.findByName("beach").size());
+            }
+        } finally {
+            Files.deleteIfExists(catalogFile);
+            FileUtils.clearDirectory(dir, true);
+        }
+    }
+
+    /**
+     * 以随机生成的条目对比索引查询与逐个比较的结果
+     */
+    @Test
+    void catalogQueryTest(TestReporter reporter) throws IOException {
+        Random random = new Random(42);
+        String[] words = { "photo", "report", "backup", "music", "video", "draft", "final" };
+        String[] extensions = { "zip", "jpg", "txt", "mp4", "" };
+        List<FileDTO> files = new ArrayList<>();
+        for (int i = 0; i < 200000; i++) {
+            FileDTO file = new FileDTO();
+            String extension = extensions[random.nextInt(extensions.length)];
+            String name = words[random.nextInt(words.length)] + "_" + words[random.nextInt(words.length)] + i
+                    + (extension.isEmpty() ? "" : "." + extension);
+            file.setName(name);
+            file.setPath("root/" + name);
+            file.setType(DiskEntryType.FILE);
+            file.setSize(random.nextInt(4) == 0 ? random.nextLong() & Long.MAX_VALUE : (long) random.nextInt(1 << 20));
+            files.add(file);
+        }
+        Path catalogFile = Files.createTempFile("DiskScannerTest", ".dcat");
+        try {
+            DiskCatalog.write(catalogFile, files.stream());
+            try (DiskCatalog catalog = DiskCatalog.open(catalogFile)) {
+                long begin = System.nanoTime();
+                List<CatalogEntry> result = catalog.find("zip", 1L << 30, Long.MAX_VALUE, "final_photo");
+                reporter.publishEntry("catalogQueryMillis", String.valueOf((System.nanoTime() - begin) / 1000000));
+                Assertions.assertEquals(files.stream()
+                        .filter(f -> f.getName().endsWith(".zip") && f.getSize() >= 1L << 30
+                                && f.getName().contains("final_photo"))
+                        .count(), result.size());
+                for (int i = 1; i < result.size(); i++) {
+                    Assertions.assertTrue(result.get(i - 1).getSize() <= result.get(i).getSize());
+                }
+
+                Assertions.assertEquals(files.stream().filter(f -> f.getName().contains("ackup_m")).count(),
+                        catalog.findByName("ACKUP_M").size());
+                Assertions.assertEquals(files.stream().filter(f -> f.getName().endsWith(".mp4")).count(),
+                        catalog.findByExtension("mp4").size());
+                Assertions.assertEquals(files.stream().filter(f -> f.getSize() >= 1000 && f.getSize() <= 5000).count(),
+                        catalog.findBySize(1000, 5000).size());
+                Assertions.assertEquals(files.stream().filter(f -> f.getName().contains("99")).count(),
+                        catalog.findByName("99").size());
+            }
+        } finally {
+            Files.deleteIfExists(catalogFile);
+        }
+    }
+
+    private static List<String> names(List<CatalogEntry> entries) {
+        return entries.stream().map(CatalogEntry::getName).collect(Collectors.toList());
+    }
+
+    private static long count(DirectoryDTO directory, DiskEntryType type) {
+        long count = 0;
+        for (DirectoryEntryDTO entry : directory.getEntries()) {
+            if (entry.getType() == type) {
+                count++;
+            }
+            if (entry instanceof DirectoryDTO) {
+                count += count((DirectoryDTO) entry, type);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 对比旧实现（每个条目读取4~5次属性）与新实现（每个条目读取1次属性）扫描大目录时读取属性的次数及耗时
+     *
+     * <p>读取属性的次数通过包装了默认文件系统的{@link CountingFileSystem}统计并断言；
+     * 耗时受环境影响较大，只通过TestReporter报告，不作断言
+     */
+    @Test
+    void scanDirectoryBenchmark(TestReporter reporter) throws IOException {
+        Path dir = FileUtilsTest.createTree(0, 0, 5000);
+        try {
+            DiskScanner scanner = new DiskScanner();
+            CountingFileSystem counting = new CountingFileSystem();
+            Path countedDir = counting.wrap(dir);
+            Assertions.assertEquals(5000, legacyScanDirectory(scanner, countedDir));
+            int legacyStats = counting.stats.getAndSet(0);
+            Assertions.assertEquals(5000, scanner.scanDirectory(countedDir, false).get().getEntries().size());
+            int stats = counting.stats.get();
+            reporter.publishEntry("legacyStats", String.valueOf(legacyStats));
+            reporter.publishEntry("singleStats", String.valueOf(stats));
+            // 目录本身及每个条目各一次
+            Assertions.assertEquals(5000 + 1, stats);
+            Assertions.assertTrue(legacyStats >= 3 * stats, legacyStats + " / " + stats);
+
+            long legacyBest = Long.MAX_VALUE;
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < 5; round++) {
+                long begin = System.nanoTime();
+                int legacyCount = legacyScanDirectory(scanner, dir);
+                legacyBest = Math.min(legacyBest, System.nanoTime() - begin);
+
+                begin = System.nanoTime();
+                int count = scanner.scanDirectory(dir, false).get().getEntries().size();
+                best = Math.min(best, System.nanoTime() - begin);
+                Assertions.assertEquals(legacyCount, count);
+            }
+            reporter.publishEntry("legacyMillis", String.valueOf(legacyBest / 1000000));
+            reporter.publishEntry("singleStatMillis", String.valueOf(best / 1000000));
+        } finally {
+            FileUtils.clearDirectory(dir, true);
+        }
+    }
+
+    /**
+     * 按旧实现的方式读取属性：列出目录后，每个文件isDirectory、exists、isDirectory、读取属性各一次，
+     * 构建DTO时再读取一次属性（此处由scanFile完成，其只读取一次属性）
+     */
+    private static int legacyScanDirectory(DiskScanner scanner, Path dir) throws IOException {
+        int count = 0;
+        try (Stream<Path> stream = Files.list(dir)) {
+            List<Path> paths = stream.collect(Collectors.toList());
+            for (Path path : paths) {
+                if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    Assertions.assertTrue(Files.exists(path, LinkOption.NOFOLLOW_LINKS));
+                    Assertions.assertFalse(Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS));
+                    BasicFileAttributes attributes = Files.getFileAttributeView(path, BasicFileAttributeView.class,
+                            LinkOption.NOFOLLOW_LINKS).readAttributes();
+                    Assertions.assertEquals(attributes.size(), (long) scanner.scanFile(path, false).get().getSize());
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 统计读取属性（stat）次数的文件系统：包装默认文件系统，读取属性及检查访问权限时计数，其余操作直接委托
+     */
+    private static final class CountingFileSystem extends FileSystem {
+        private final FileSystem delegate = FileSystems.getDefault();
+        private final CountingProvider provider = new CountingProvider(this);
+        private final AtomicInteger stats = new AtomicInteger();
+
+        Path wrap(Path path) {
+            return path == null ? null : new CountingPath(this, path);
+        }
+
+        static Path unwrap(Path path) {
+            return path instanceof CountingPath ? ((CountingPath) path).delegate : path;
+        }
+
+        @Override
+        public FileSystemProvider provider() {
+            return provider;
+        }
+
+        @Override
+        public void close() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public boolean isReadOnly() {
+            return delegate.isReadOnly();
+        }
+
+        @Override
+        public String getSeparator() {
+            return delegate.getSeparator();
+        }
+
+        @Override
+        public Iterable<Path> getRootDirectories() {
+            List<Path> roots = new ArrayList<>();
+            delegate.getRootDirectories().forEach(root -> roots.add(wrap(root)));
+            return roots;
+        }
+
+        @Override
+        public Iterable<FileStore> getFileStores() {
+            return delegate.getFileStores();
+        }
+
+        @Override
+        public Set<String> supportedFileAttributeViews() {
+            return delegate.supportedFileAttributeViews();
+        }
+
+        @Override
+        public Path getPath(String first, String... more) {
+            return wrap(delegate.getPath(first, more));
+        }
+
+        @Override
+        public PathMatcher getPathMatcher(String syntaxAndPattern) {
+            PathMatcher matcher = delegate.getPathMatcher(syntaxAndPattern);
+            return path -> matcher.matches(unwrap(path));
+        }
+
+        @Override
+        public UserPrincipalLookupService getUserPrincipalLookupService() {
+            return delegate.getUserPrincipalLookupService();
+        }
+
+        @Override
+        public WatchService newWatchService() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class CountingProvider extends FileSystemProvider {
+        private final CountingFileSystem fileSystem;
+        private final FileSystemProvider delegate = FileSystems.getDefault().provider();
+
+        CountingProvider(CountingFileSystem fileSystem) {
+            this.fileSystem = fileSystem;
+        }
+
+        @Override
+        public String getScheme() {
+            return delegate.getScheme();
+        }
+
+        @Override
+        public FileSystem newFileSystem(URI uri, Map<String, ?> env) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileSystem getFileSystem(URI uri) {
+            return fileSystem;
+        }
+
+        @Override
+        public Path getPath(URI uri) {
+            return fileSystem.wrap(delegate.getPath(uri));
+        }
+
+        @Override
+        public SeekableByteChannel newByteChannel(Path path, Set<? extends OpenOption> options,
+                FileAttribute<?>... attrs) throws IOException {
+            return delegate.newByteChannel(CountingFileSystem.unwrap(path), options, attrs);
+        }
+
+        @Override
+        public DirectoryStream<Path> newDirectoryStream(Path dir, DirectoryStream.Filter<? super Path> filter)
+                throws IOException {
+            DirectoryStream<Path> stream = delegate.newDirectoryStream(CountingFileSystem.unwrap(dir),
+                    path -> filter.accept(fileSystem.wrap(path)));
+            return new DirectoryStream<Path>() {
+                @Override
+                public Iterator<Path> iterator() {
+                    Iterator<Path> iterator = stream.iterator();
+                    return new Iterator<Path>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Path next() {
+                            return fileSystem.wrap(iterator.next());
+                        }
+                    };
+                }
+
+                @Override
+                public void close() throws IOException {
+                    stream.close();
+                }
+            };
+        }
+
+        @Override
+        public void createDirectory(Path dir, FileAttribute<?>... attrs) throws IOException {
+            delegate.createDirectory(CountingFileSystem.unwrap(dir), attrs);
+        }
+
+        @Override
+        public void delete(Path path) throws IOException {
+            delegate.delete(CountingFileSystem.unwrap(path));
+        }
+
+        @Override
+        public void copy(Path source, Path target, CopyOption... options) throws IOException {
+            delegate.copy(CountingFileSystem.unwrap(source), CountingFileSystem.unwrap(target), options);
+        }
+
+        @Override
+        public void move(Path source, Path target, CopyOption... options) throws IOException {
+            delegate.move(CountingFileSystem.unwrap(source), CountingFileSystem.unwrap(target), options);
+        }
+
+        @Override
+        public boolean isSameFile(Path path, Path path2) throws IOException {
+            return delegate.isSameFile(CountingFileSystem.unwrap(path), CountingFileSystem.unwrap(path2));
+        }
+
+        @Override
+        public boolean isHidden(Path path) throws IOException {
+            return delegate.isHidden(CountingFileSystem.unwrap(path));
+        }
+
+        @Override
+        public FileStore getFileStore(Path path) throws IOException {
+            return delegate.getFileStore(CountingFileSystem.unwrap(path));
+        }
+
+        @Override
+        public void checkAccess(Path path, AccessMode... modes) throws IOException {
+            fileSystem.stats.incrementAndGet();
+            delegate.checkAccess(CountingFileSystem.unwrap(path), modes);
+        }
+
+        @Override
+        public <V extends FileAttributeView> V getFileAttributeView(Path path, Class<V> type,
+                LinkOption... options) {
+            V view = delegate.getFileAttributeView(CountingFileSystem.unwrap(path), type, options);
+            if (view == null || type != BasicFileAttributeView.class) {
+                return view;
+            }
+            BasicFileAttributeView basicView = (BasicFileAttributeView) view;
+            return type.cast(new BasicFileAttributeView() {
+                @Override
+                public String name() {
+                    return basicView.name();
+                }
+
+                @Override
+                public BasicFileAttributes readAttributes() throws IOException {
+                    fileSystem.stats.incrementAndGet();
+                    return basicView.readAttributes();
+                }
+
+                @Override
+                public void setTimes(FileTime lastModifiedTime, FileTime lastAccessTime, FileTime createTime)
+                        throws IOException {
+                    basicView.setTimes(lastModifiedTime, lastAccessTime, createTime);
+                }
+            });
+        }
+
+        @Override
+        public <A extends BasicFileAttributes> A readAttributes(Path path, Class<A> type, LinkOption... options)
+                throws IOException {
+            fileSystem.stats.incrementAndGet();
+            return delegate.readAttributes(CountingFileSystem.unwrap(path), type, options);
+        }
+
+        @Override
+        public Map<String, Object> readAttributes(Path path, String attributes, LinkOption... options)
+                throws IOException {
+            fileSystem.stats.incrementAndGet();
+            return delegate.readAttributes(CountingFileSystem.unwrap(path), attributes, options);
+        }
+
+        @Override
+        public void setAttribute(Path path, String attribute, Object value, LinkOption... options)
+                throws IOException {
+            delegate.setAttribute(CountingFileSystem.unwrap(path), attribute, value, options);
+        }
+    }
+
+    /** {@link CountingFileSystem}中的路径，所有操作委托给默认文件系统中的路径，结果再包装 */
+    private static final class CountingPath implements Path {
+        private final CountingFileSystem fileSystem;
+        private final Path delegate;
+
+        CountingPath(CountingFileSystem fileSystem, Path delegate) {
+            this.fileSystem = fileSystem;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public FileSystem getFileSystem() {
+            return fileSystem;
+        }
+
+        @Override
+        public boolean isAbsolute() {
+            return delegate.isAbsolute();
+        }
+
+        @Override
+        public Path getRoot() {
+            return fileSystem.wrap(delegate.getRoot());
+        }
+
+        @Override
+        public Path getFileName() {
+            return fileSystem.wrap(delegate.getFileName());
+        }
+
+        @Override
+        public Path getParent() {
+            return fileSystem.wrap(delegate.getParent());
+        }
+
+        @Override
+        public int getNameCount() {
+            return delegate.getNameCount();
+        }
+
+        @Override
+        public Path getName(int index) {
+            return fileSystem.wrap(delegate.getName(index));
+        }
+
+        @Override
+        public Path subpath(int beginIndex, int endIndex) {
+            return fileSystem.wrap(delegate.subpath(beginIndex, endIndex));
+        }
+
+        @Override
+        public boolean startsWith(Path other) {
+            return delegate.startsWith(CountingFileSystem.unwrap(other));
+        }
+
+        @Override
+        public boolean startsWith(String other) {
+            return delegate.startsWith(other);
+        }
+
+        @Override
+        public boolean endsWith(Path other) {
+            return delegate.endsWith(CountingFileSystem.unwrap(other));
+        }
+
+        @Override
+        public boolean endsWith(String other) {
+            return delegate.endsWith(other);
+        }
+
+        @Override
+        public Path normalize() {
+            return fileSystem.wrap(delegate.normalize());
+        }
+
+        @Override
+        public Path resolve(Path other) {
+            return fileSystem.wrap(delegate.resolve(CountingFileSystem.unwrap(other)));
+        }
+
+        @Override
+        public Path resolve(String other) {
+            return fileSystem.wrap(delegate.resolve(other));
+        }
+
+        @Override
+        public Path resolveSibling(Path other) {
+            return fileSystem.wrap(delegate.resolveSibling(CountingFileSystem.unwrap(other)));
+        }
+
+        @Override
+        public Path resolveSibling(String other) {
+            return fileSystem.wrap(delegate.resolveSibling(other));
+        }
+
+        @Override
+        public Path relativize(Path other) {
+            return fileSystem.wrap(delegate.relativize(CountingFileSystem.unwrap(other)));
+        }
+
+        @Override
+        public URI toUri() {
+            return delegate.toUri();
+        }
+
+        @Override
+        public Path toAbsolutePath() {
+            return fileSystem.wrap(delegate.toAbsolutePath());
+        }
+
+        @Override
+        public Path toRealPath(LinkOption... options) throws IOException {
+            return fileSystem.wrap(delegate.toRealPath(options));
+        }
+
+        @Override
+        public File toFile() {
+            return delegate.toFile();
+        }
+
+        @Override
+        public WatchKey register(WatchService watcher, WatchEvent.Kind<?>[] events, WatchEvent.Modifier... modifiers) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public WatchKey register(WatchService watcher, WatchEvent.Kind<?>... events) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Iterator<Path> iterator() {
+            List<Path> names = new ArrayList<>();
+            delegate.forEach(name -> names.add(fileSystem.wrap(name)));
+            return names.iterator();
+        }
+
+        @Override
+        public int compareTo(Path other) {
+            return delegate.compareTo(CountingFileSystem.unwrap(other));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CountingPath && delegate.equals(((CountingPath) obj).delegate);
+        }
+
+        @Override
+        public int hashCode() {
+            return delegate.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package indi.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import indi.io.FileUtils;
+import indi.test.TestSeparateExtension;
+import indi.util.DuplicateFinder.Report;
+
+/**
+ * @author DragonBoom
+ * @since 2026.10.18
+ */
+@ExtendWith(TestSeparateExtension.class)
+class DuplicateFinderTest {
+
+    @Test
+    void findTest() throws IOException {
+        Path dir = Files.createTempDirectory("DuplicateFinderTest");
+        try {
+            Random random = new Random(7);
+            byte[] big = new byte[200 * 1024];
+            random.nextBytes(big);
+            // 与big大小相同、首尾相同，只有中间不同的文件，只能通过完整的散列值区分
+            byte[] bigMiddleChanged = big.clone();
+            bigMiddleChanged[big.length / 2]++;
+            byte[] small = "small duplicated content".getBytes();
+            byte[] smallOther = "small DUPLICATED content".getBytes();
+            
+            Path sub = Files.createDirectory(dir.resolve("sub"));
+            Files.write(dir.resolve("big1"), big);
+            Files.write(sub.resolve("big2"), big);
+            Files.write(sub.resolve("big3"), big);
+            Files.write(dir.resolve("bigMiddleChanged"), bigMiddleChanged);
+            Files.write(dir.resolve("small1"), small);
+            Files.write(sub.resolve("small2"), small);
+            Files.write(dir.resolve("smallOther"), smallOther);
+            Files.createFile(dir.resolve("empty1"));
+            Files.createFile(dir.resolve("empty2"));
+            
+            for (boolean verify : new boolean[] { false, true }) {
+                Report report = DuplicateFinder.builder().sampleSize(4096).verifyBytes(verify).parallelism(4).build()
+                        .find(dir);
+                Assertions.assertEquals(2, report.getGroups().size());
+                Assertions.assertEquals(Arrays.asList(dir.resolve("big1"), sub.resolve("big2"), sub.resolve("big3")),
+                        report.getGroups().get(0).getPaths());
+                Assertions.assertEquals(Arrays.asList(dir.resolve("small1"), sub.resolve("small2")),
+                        report.getGroups().get(1).getPaths());
+                Assertions.assertEquals(big.length * 2L + small.length, report.getWastedBytes());
+                Assertions.assertTrue(report.getFailures().isEmpty());
+            }
+            
+            Report report = DuplicateFinder.builder().minSize(0).build().find(Arrays.asList(dir.resolve("empty1"), 
+                    dir.resolve("empty2"), dir.resolve("small1"), dir.resolve("notExists")));
+            Assertions.assertEquals(1, report.getGroups().size());
+            Assertions.assertEquals(0, report.getWastedBytes());
+            Assertions.assertEquals(dir.resolve("notExists"), report.getFailures().get(0).getFirst());
+        } finally {
+            FileUtils.clearDirectory(dir, true);
+        }
+    }
+}
@@ -1,21 +1,85 @@
 package indi.util;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import com.google.common.io.ByteStreams;
+import com.google.common.primitives.Bytes;
+
+import indi.constant.ImageFormat;
+import indi.exception.WrapperException;
+import indi.io.BandwidthLimiter;
+import indi.io.ChannelCopyOptions;
+import indi.io.ChunkedFileReader;
+import indi.io.ChunkedFileReader.FileChunk;
+import indi.io.CopyDirectoryOptions;
+import indi.io.CopyMetrics;
+import indi.io.DirSizeCache;
+import indi.io.DirectoryNameIndex;
+import indi.io.DirectorySnapshot;
+import indi.io.FileChangeEvent;
+import indi.io.FileNameSortKey;
+import indi.io.FileOperationSummary;
 import indi.io.FileUtils;
 import indi.io.FileUtils.FileNameComparator;
+import indi.io.ImageDetector;
+import indi.io.PathRanking;
+import indi.io.RecursiveDirectoryWatcher;
+import indi.io.SearchMatch;
+import indi.io.SearchOptions;
+import indi.io.SnapshotDiff;
+import indi.io.SnapshotEntry;
 import indi.test.TestSeparateExtension;
 
 @ExtendWith(TestSeparateExtension.class)
@@ -101,4 +165,913 @@ class FileUtilsTest {
         FileUtils.moveOrRename(source, dest);
     }
     
+    /**
+     * 在临时目录下创建测试用的目录树：depth层目录，每层width个子目录，每个目录下files个文件
+     */
+    static Path createTree(int depth, int width, int files) throws IOException {
+        Path root = Files.createTempDirectory("FileUtilsTest");
+        fillTree(root, depth, width, files);
+        return root;
+    }
+    
+    private static void fillTree(Path dir, int depth, int width, int files) throws IOException {
+        for (int i = 0; i < files; i++) {
+            Files.write(dir.resolve("file" + i + ".txt"), ("content of " + i).getBytes());
+        }
+        if (depth == 0) {
+            return;
+        }
+        for (int i = 0; i < width; i++) {
+            fillTree(Files.createDirectory(dir.resolve("dir" + i)), depth - 1, width, files);
+        }
+    }
+    
+    @Test
+    void clearDirectoryParallelTest() throws IOException {
+        Path root = createTree(3, 3, 5);
+        FileOperationSummary summary = FileUtils.clearDirectory(root, false, 4);
+        Assertions.assertFalse(summary.hasFailure());
+        Assertions.assertEquals(40 * 5, summary.getFiles());
+        Assertions.assertEquals(39, summary.getDirectories());
+        Assertions.assertTrue(summary.getBytes() > 0);
+        try (Stream<Path> stream = Files.list(root)) {
+            Assertions.assertEquals(0, stream.count());
+        }
+        
+        FileUtils.clearDirectory(root, true, 4);
+        Assertions.assertFalse(Files.exists(root));
+    }
+    
+    @Test
+    void copyChannelTest() throws IOException {
+        byte[] data = new byte[3 * 1024 * 1024 + 17];
+        new Random(1).nextBytes(data);
+        Path source = Files.createTempFile("FileUtilsTest", ".src");
+        Path target = Files.createTempFile("FileUtilsTest", ".dest");
+        Files.write(source, data);
+        
+        // FileChannel -> FileChannel
+        AtomicLong transferred = new AtomicLong();
+        try (FileChannel in = FileChannel.open(source); 
+                FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            FileUtils.copyChannel(in, out, null, (size, cost) -> transferred.addAndGet(size), 0L);
+            Assertions.assertEquals(data.length, in.position());
+            Assertions.assertEquals(data.length, out.position());
+        }
+        Assertions.assertEquals(data.length, transferred.get());
+        Assertions.assertArrayEquals(data, Files.readAllBytes(target));
+        
+        // 其他通道 -> FileChannel
+        Files.write(target, new byte[0]);
+        try (ReadableByteChannel in = Channels.newChannel(new ByteArrayInputStream(data)); 
+                FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            FileUtils.copyChannel(in, out, null);
+        }
+        Assertions.assertArrayEquals(data, Files.readAllBytes(target));
+        
+        // 其他通道 -> 其他通道，自适应缓存与固定缓存
+        for (Integer bufferSize : new Integer[] { null, 1000 }) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            transferred.set(0);
+            FileUtils.copyChannel(Channels.newChannel(new ByteArrayInputStream(data)), Channels.newChannel(out), 
+                    bufferSize, (size, cost) -> transferred.addAndGet(size), null);
+            Assertions.assertArrayEquals(data, out.toByteArray());
+            Assertions.assertEquals(data.length, transferred.get());
+        }
+        
+        // FileChannel -> 非阻塞通道：目标已满时transferTo返回0，应改用缓存复制并等待目标可写
+        Pipe pipe = Pipe.open();
+        pipe.sink().configureBlocking(false);
+        CompletableFuture<byte[]> received = CompletableFuture.supplyAsync(() -> {
+            try (InputStream in = Channels.newInputStream(pipe.source())) {
+                return ByteStreams.toByteArray(in);
+            } catch (IOException e) {
+                throw new WrapperException(e);
+            }
+        });
+        try (FileChannel in = FileChannel.open(source); Pipe.SinkChannel sink = pipe.sink()) {
+            Assertions.assertEquals(data.length, FileUtils.copy(in, sink, ChannelCopyOptions.builder().build()));
+        }
+        Assertions.assertArrayEquals(data, received.join());
+        
+        // 大小为0的特殊文件仍能复制至结束
+        Path proc = Paths.get("/proc/self/status");
+        if (Files.isReadable(proc)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (FileChannel in = FileChannel.open(proc)) {
+                Assertions.assertEquals(0, in.size());
+                long copied = FileUtils.copy(in, Channels.newChannel(out), ChannelCopyOptions.builder().build());
+                Assertions.assertTrue(copied > 0);
+            }
+            Assertions.assertTrue(new String(out.toByteArray(), StandardCharsets.UTF_8).contains("Name:"));
+        }
+        Files.delete(source);
+        Files.delete(target);
+    }
+    
+    @Test
+    void copyChannelPipelinedTest() throws IOException {
+        byte[] data = new byte[1024 * 1024 + 7];
+        new Random(2).nextBytes(data);
+        // 模拟较慢的源：每次最多读取1000字节
+        InputStream slowStream = new ByteArrayInputStream(data) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1000));
+            }
+        };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AtomicLong transferred = new AtomicLong();
+        FileUtils.copyChannel(Channels.newChannel(slowStream), Channels.newChannel(out), 4096, 4,
+                (size, cost) -> transferred.addAndGet(size), 0L);
+        Assertions.assertArrayEquals(data, out.toByteArray());
+        Assertions.assertEquals(data.length, transferred.get());
+        
+        // 读取出错时，异常应在调用线程抛出
+        InputStream brokenStream = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("broken");
+            }
+        };
+        Assertions.assertThrows(WrapperException.class, () -> FileUtils.copyChannel(Channels.newChannel(brokenStream),
+                Channels.newChannel(new ByteArrayOutputStream()), null, 2, null, null));
+    }
+    
+    @Test
+    void copyChannelThrottleTest() throws IOException {
+        byte[] data = new byte[2 * 1024 * 1024];
+        Path source = Files.createTempFile("FileUtilsTest", ".src");
+        Files.write(source, data);
+        // 令牌桶初始为满（1秒的量）：容量内的请求无需等待，透支后需等待
+        BandwidthLimiter direct = new BandwidthLimiter(1024 * 1024);
+        Assertions.assertEquals(0, direct.acquire(1024 * 1024));
+        Assertions.assertTrue(direct.acquire(256 * 1024) > 0);
+        direct.setBytesPerSecond(0);
+        Assertions.assertEquals(0, direct.acquire(Long.MAX_VALUE));
+        
+        // 2MB的数据在1MB/s的限速下至少需1秒：结束时令牌不为负，即传输量不超过容量加上期间生成的令牌。
+        // 只断言该下限（留有余量），不断言上限，避免受机器负载影响
+        BandwidthLimiter limiter = new BandwidthLimiter(1024 * 1024);
+        CopyMetrics metrics = new CopyMetrics();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long begin = System.nanoTime();
+        try (FileChannel in = FileChannel.open(source)) {
+            long copied = FileUtils.copy(in, Channels.newChannel(out), 
+                    ChannelCopyOptions.builder().limiter(limiter).metrics(metrics).build());
+            Assertions.assertEquals(data.length, copied);
+        }
+        long cost = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        Assertions.assertTrue(cost >= 500, "cost: " + cost);
+        Assertions.assertEquals(data.length, metrics.getTotalBytes());
+        Assertions.assertTrue(metrics.getStallMillis() > 0);
+        Assertions.assertTrue(metrics.getThroughput() > 0);
+        
+        // 运行时取消限速，之后不再等待
+        limiter.setBytesPerSecond(0);
+        CopyMetrics unlimited = new CopyMetrics();
+        try (FileChannel in = FileChannel.open(source)) {
+            FileUtils.copy(in, Channels.newChannel(new ByteArrayOutputStream()), 
+                    ChannelCopyOptions.builder().limiter(limiter).metrics(unlimited).build());
+        }
+        Assertions.assertEquals(data.length, unlimited.getTotalBytes());
+        Assertions.assertEquals(0, unlimited.getStallMillis());
+        Files.delete(source);
+    }
+    
+    @Test
+    void copyDirectoryTest() throws IOException {
+        Path source = createTree(2, 3, 4);
+        Path large = source.resolve("dir0").resolve("large.bin");
+        byte[] data = new byte[2 * 1024 * 1024];
+        new Random(3).nextBytes(data);
+        Files.write(large, data);
+        Path dest = Files.createTempDirectory("FileUtilsTest").resolve("copy");
+        
+        CopyDirectoryOptions options = CopyDirectoryOptions.builder()
+                .parallelism(3)
+                .smallFileBatchSize(5)
+                .preserveAttributes(true)
+                .build();
+        FileOperationSummary summary = FileUtils.copyDirectory(source, dest, options);
+        Assertions.assertFalse(summary.hasFailure());
+        Assertions.assertEquals(13 * 4 + 1, summary.getFiles());
+        Assertions.assertEquals(13, summary.getDirectories());
+        Assertions.assertArrayEquals(data, Files.readAllBytes(dest.resolve("dir0").resolve("large.bin")));
+        Assertions.assertArrayEquals(Files.readAllBytes(source.resolve("dir2").resolve("dir1").resolve("file3.txt")), 
+                Files.readAllBytes(dest.resolve("dir2").resolve("dir1").resolve("file3.txt")));
+        Assertions.assertEquals(Files.getLastModifiedTime(large).toMillis(), 
+                Files.getLastModifiedTime(dest.resolve("dir0").resolve("large.bin")).toMillis());
+        
+        // 增量复制：只复制修改过的文件；目标文件的修改时间精度较低（如JDK 9+复制属性时截断到微秒）时仍视为相同
+        Path precise = source.resolve("dir1").resolve("file0.txt");
+        long micros = Files.getLastModifiedTime(precise).to(TimeUnit.MILLISECONDS) * 1000;
+        Files.setLastModifiedTime(precise, FileTime.from(micros + 456, TimeUnit.MICROSECONDS));
+        Files.setLastModifiedTime(dest.resolve("dir1").resolve("file0.txt"),
+                FileTime.from(micros, TimeUnit.MICROSECONDS));
+        Files.write(source.resolve("file0.txt"), "changed".getBytes());
+        summary = FileUtils.copyDirectory(source, dest, CopyDirectoryOptions.builder().incremental(true).build());
+        Assertions.assertEquals(1, summary.getFiles());
+        Assertions.assertEquals(13 * 4, summary.getSkipped());
+        Assertions.assertEquals("changed", new String(Files.readAllBytes(dest.resolve("file0.txt"))));
+        
+        FileUtils.clearDirectory(source, true, 2);
+        FileUtils.clearDirectory(dest.getParent(), true, 2);
+    }
+    
+    @Test
+    void moveDirectoryTest() throws IOException {
+        // 目标目录为空：整体重命名
+        Path source = createTree(2, 2, 3);
+        Path dest = Files.createTempDirectory("FileUtilsTest");
+        FileUtils.moveDirEach(source, dest);
+        Assertions.assertFalse(Files.exists(source));
+        Assertions.assertTrue(Files.exists(dest.resolve("dir1").resolve("dir0").resolve("file2.txt")));
+        
+        // 目标目录非空：合并目录
+        source = createTree(1, 2, 3);
+        Files.write(source.resolve("dir1").resolve("extra.txt"), "extra".getBytes());
+        Files.createDirectory(source.resolve("newDir"));
+        FileUtils.moveDirEach(source, dest);
+        Assertions.assertFalse(Files.exists(source));
+        Assertions.assertEquals("extra", new String(Files.readAllBytes(dest.resolve("dir1").resolve("extra.txt"))));
+        Assertions.assertTrue(Files.isDirectory(dest.resolve("newDir")));
+        Assertions.assertTrue(Files.exists(dest.resolve("dir1").resolve("dir0").resolve("file2.txt")));
+        
+        // 移动到目录下
+        Path parent = Files.createTempDirectory("FileUtilsTest");
+        FileUtils.move2Dir(dest, parent);
+        Assertions.assertFalse(Files.exists(dest));
+        Assertions.assertTrue(Files.exists(parent.resolve(dest.getFileName()).resolve("dir1").resolve("extra.txt")));
+        
+        FileUtils.clearDirectory(parent, true, 2);
+    }
+    
+    @Test
+    void dirSizeTest() throws IOException {
+        Path root = createTree(3, 3, 4);
+        long expected;
+        try (Stream<Path> stream = Files.walk(root)) {
+            expected = stream.filter(p -> !Files.isDirectory(p)).mapToLong(p -> p.toFile().length()).sum();
+        }
+        long direct;
+        try (Stream<Path> stream = Files.list(root)) {
+            direct = stream.filter(p -> !Files.isDirectory(p)).mapToLong(p -> p.toFile().length()).sum();
+        }
+        Assertions.assertEquals(expected, FileUtils.dirSize(root, true));
+        Assertions.assertEquals(direct, FileUtils.dirSize(root, false));
+        Assertions.assertEquals(expected, FileUtils.dirSize(root, true, 4, null));
+        Assertions.assertEquals(direct, FileUtils.dirSize(root, false, 4, null));
+        
+        DirSizeCache cache = new DirSizeCache();
+        Assertions.assertEquals(expected, FileUtils.dirSize(root, true, 4, cache));
+        Assertions.assertEquals(40, cache.size());
+        Assertions.assertEquals(expected, FileUtils.dirSize(root, true, 4, cache));
+        // 新增文件将改变目录的修改时间，使缓存失效
+        Path added = root.resolve("dir1").resolve("dir2").resolve("added.txt");
+        Files.write(added, new byte[100]);
+        Files.setLastModifiedTime(added.getParent(), FileTime.fromMillis(System.currentTimeMillis() + 10000));
+        Assertions.assertEquals(expected + 100, FileUtils.dirSize(root, true, 4, cache));
+        
+        // 在修改时间的精度内再次修改目录，修改时间不变，但刚列出的目录不使用缓存，仍能发现变化
+        Path racyDir = root.resolve("dir0");
+        Files.write(racyDir.resolve("first.txt"), new byte[10]);
+        FileTime racyTime = Files.getLastModifiedTime(racyDir);
+        Assertions.assertEquals(expected + 110, FileUtils.dirSize(root, true, 4, cache));
+        Files.write(racyDir.resolve("second.txt"), new byte[20]);
+        Files.setLastModifiedTime(racyDir, racyTime);
+        Assertions.assertEquals(expected + 130, FileUtils.dirSize(root, true, 4, cache));
+        
+        FileUtils.clearDirectory(root, true, 2);
+    }
+    
+    @Test
+    void findDirectoriesTest() throws IOException {
+        Path root = createTree(3, 3, 1);
+        Files.createDirectories(root.resolve("dir2").resolve("dir1").resolve("target"));
+        Files.createDirectories(root.resolve("dir0").resolve("dir0").resolve("dir0").resolve("target"));
+        
+        Assertions.assertEquals(root.resolve("dir2").resolve("dir1").resolve("target"), 
+                FileUtils.findDirectory(root, "target"));
+        Assertions.assertNull(FileUtils.findDirectory(root, "target", 2));
+        Assertions.assertNull(FileUtils.findDirectory(root, "notExists"));
+        try (Stream<Path> stream = FileUtils.findDirectories(root, p -> p.getFileName().toString().equals("target"))) {
+            Assertions.assertEquals(2, stream.count());
+        }
+        try (Stream<Path> stream = FileUtils.findDirectories(root, p -> true, 1)) {
+            Assertions.assertEquals(3, stream.count());
+        }
+        
+        DirectoryNameIndex index = DirectoryNameIndex.build(root);
+        Assertions.assertEquals(2, index.find("target").size());
+        Assertions.assertEquals(FileUtils.findDirectory(root, "target"), index.findFirst("target"));
+        Assertions.assertEquals(3 + 9 + 27, index.find("dir0").size() + index.find("dir1").size() + index.find("dir2").size());
+        
+        FileUtils.clearDirectory(root, true, 2);
+    }
+    
+    @Test
+    void forEachParallelTest() throws Exception {
+        Path root = createTree(3, 3, 2);
+        // 目录的处理函数应在其所有子目录处理完成后执行
+        Set<Path> done = ConcurrentHashMap.newKeySet();
+        AtomicInteger disorder = new AtomicInteger();
+        FileUtils.forEachDirectory(root, dir -> {
+            try (Stream<Path> stream = Files.list(dir)) {
+                stream.filter(Files::isDirectory).filter(sub -> !done.contains(sub)).forEach(sub -> disorder.incrementAndGet());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            done.add(dir);
+        }, 4).get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals(40, done.size());
+        Assertions.assertEquals(0, disorder.get());
+        
+        AtomicInteger files = new AtomicInteger();
+        FileUtils.forEachFile(root, file -> files.incrementAndGet());
+        Assertions.assertEquals(80, files.get());
+        files.set(0);
+        FileUtils.forEachFile(root, file -> files.incrementAndGet(), 4).get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals(80, files.get());
+        
+        // 异常将被汇总
+        CompletableFuture<Void> future = FileUtils.forEachFile(root, file -> {
+            if (file.getFileName().toString().equals("file0.txt")) {
+                throw new IllegalStateException(file.toString());
+            }
+        }, 4);
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(40, e.getCause().getSuppressed().length);
+        
+        FileUtils.clearDirectory(root, true, 2);
+    }
+    
+    @Test
+    void fileNameComparatorInPlaceTest() {
+        FileNameComparator comparator = new FileUtils.FileNameComparator();
+        Assertions.assertEquals(-1, comparator.compare("a001.jpg", "b002.jpg"));
+        Assertions.assertEquals(-1, comparator.compare("01.jpg", "012.jpg"));
+        Assertions.assertEquals(1, comparator.compare("015b.jpg", "015a.jpg"));
+        Assertions.assertEquals(-1, comparator.compare("img2.jpg", "img10.jpg"));
+        Assertions.assertEquals(0, comparator.compare("img10.jpg", "img10.jpg"));
+        Assertions.assertEquals(-1, comparator.compare("img10", "img10.jpg"));
+        // 前导零不影响数字的值，且位数不同时能继续比较后续字符
+        Assertions.assertEquals(-1, comparator.compare("a001b", "a1c"));
+        // 只有前导零不同时，第一个前导零数量不同的数字中前导零少的较小，只有相同的字符串才相等
+        Assertions.assertEquals(1, comparator.compare("a001b", "a1b"));
+        Assertions.assertEquals(-1, comparator.compare("a1b", "a001b"));
+        Assertions.assertEquals(-1, comparator.compare("000", "00000"));
+        Assertions.assertEquals(1, comparator.compare("a01b1", "a1b001"));
+        Set<String> names = new TreeSet<>(comparator);
+        names.addAll(Arrays.asList("a001b", "a1b", "a01b", "a1b"));
+        Assertions.assertEquals(Arrays.asList("a1b", "a01b", "a001b"), new ArrayList<>(names));
+        // 超过Long范围的数字
+        Assertions.assertEquals(1, comparator.compare("v123456789012345678901234567890", "v123456789012345678901234567889"));
+        Assertions.assertEquals(-1, comparator.compare("v99999999999999999999", "v100000000000000000000"));
+    }
+    
+    /**
+     * 对比旧实现（toCharArray + StringBuilder + Long.parseLong）与新实现的耗时及内存分配量。
+     * 需进行数百万次比较，耗时较长，需要时手动运行
+     */
+    @Test
+    @Disabled
+    void fileNameComparatorBenchmark(TestReporter reporter) {
+        List<String> names = new ArrayList<>();
+        Random random = new Random(4);
+        for (int i = 0; i < 200000; i++) {
+            names.add("IMG_" + random.nextInt(100) + "_" + random.nextInt(100000) + ".jpg");
+        }
+        FileNameComparator comparator = new FileUtils.FileNameComparator();
+        Comparator<String> legacy = new LegacyFileNameComparator();
+        for (int round = 0; round < 3; round++) {// 预热
+            long[] legacyResult = measureComparisons(legacy, names);
+            long[] result = measureComparisons(comparator, names);
+            reporter.publishEntry("round" + round, String.format(
+                    "legacy: %dms %d bytes/compare; in-place: %dms %d bytes/compare", 
+                    legacyResult[0], legacyResult[1], result[0], result[1]));
+            if (round == 2) {
+                Assertions.assertTrue(result[1] < legacyResult[1]);
+            }
+        }
+        for (int i = 1; i < names.size(); i++) {
+            Assertions.assertEquals(legacy.compare(names.get(i - 1), names.get(i)), 
+                    comparator.compare(names.get(i - 1), names.get(i)));
+        }
+    }
+    
+    /** @return [耗时（毫秒），平均每次比较分配的字节数] */
+    private static long[] measureComparisons(Comparator<String> comparator, List<String> names) {
+        com.sun.management.ThreadMXBean mxBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = mxBean.getThreadAllocatedBytes(threadId);
+        long begin = System.nanoTime();
+        int count = 0;
+        int sink = 0;
+        for (int round = 0; round < 5; round++) {
+            for (int i = 1; i < names.size(); i++) {
+                sink += comparator.compare(names.get(i - 1), names.get(i));
+                count++;
+            }
+        }
+        long cost = (System.nanoTime() - begin) / 1000000;
+        long bytes = mxBean.getThreadAllocatedBytes(threadId) - bytesBefore;
+        Assertions.assertNotEquals(Integer.MIN_VALUE, sink);
+        return new long[] { cost, bytes / count };
+    }
+    
+    /** 旧版FileNameComparator的比较逻辑，仅用于对比 */
+    private static class LegacyFileNameComparator implements Comparator<String> {
+        @Override
+        public int compare(String name1, String name2) {
+            int lenDiffer = name1.length() - name2.length();
+            int minLen = lenDiffer >= 0 ? name2.length() : name1.length();
+            char[] chars1 = name1.toCharArray();
+            char[] chars2 = name2.toCharArray();
+            for (int i = 0; i < minLen; i++) {
+                char c1 = name1.charAt(i);
+                char c2 = name2.charAt(i);
+                if (!Character.isDigit(c1) || !Character.isDigit(c2)) {
+                    if (c1 == c2) {
+                        continue;
+                    }
+                    return c1 > c2 ? 1 : -1;
+                }
+                String number1 = serialNumber(chars1, i);
+                String number2 = serialNumber(chars2, i);
+                if (number1.equals(number2)) {
+                    i += number1.length() - 1;
+                    continue;
+                }
+                long l1 = Long.parseLong(number1);
+                long l2 = Long.parseLong(number2);
+                return l1 == l2 ? 0 : l1 > l2 ? 1 : -1;
+            }
+            return lenDiffer == 0 ? 0 : lenDiffer > 0 ? 1 : -1;
+        }
+        
+        private String serialNumber(char[] chars, int beginIndex) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = beginIndex; i < chars.length && Character.isDigit(chars[i]); i++) {
+                sb.append(chars[i]);
+            }
+            return sb.toString();
+        }
+    }
+    
+    @Test
+    void sortNaturallyTest() {
+        FileNameComparator comparator = new FileUtils.FileNameComparator();
+        Random random = new Random(5);
+        String[] parts = { "a", "B", "_", "-", ".", " ", "img", "~", "0", "007", "10", "9", "123456789012345678901234567890" };
+        List<Path> paths = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int count = 1 + random.nextInt(5);
+            for (int j = 0; j < count; j++) {
+                sb.append(parts[random.nextInt(parts.length)]);
+            }
+            paths.add(Paths.get("dir", sb.toString()));
+        }
+        // 排序键的比较结果与比较器一致
+        for (int i = 1; i < paths.size(); i++) {
+            String name1 = paths.get(i - 1).getFileName().toString();
+            String name2 = paths.get(i).getFileName().toString();
+            Assertions.assertEquals(comparator.compare(name1, name2), 
+                    FileNameSortKey.of(name1).compareTo(FileNameSortKey.of(name2)), name1 + " <> " + name2);
+        }
+        
+        // 非ASCII字符（文件系统编码可能不支持，不用于路径）
+        Assertions.assertEquals(comparator.compare("\u4e2d1", "a2"), 
+                FileNameSortKey.of("\u4e2d1").compareTo(FileNameSortKey.of("a2")));
+        // 只有前导零不同时与比较器一致，排序键是全序
+        for (String[] pair : new String[][] { { "a01b", "a1b" }, { "a1b", "a01b" }, { "a01b1", "a1b001" },
+                { "000", "00000" }, { "a1", "a1b" }, { "a01", "a1b" }, { "a", "a0" } }) {
+            Assertions.assertEquals(comparator.compare(pair[0], pair[1]),
+                    FileNameSortKey.of(pair[0]).compareTo(FileNameSortKey.of(pair[1])), pair[0] + " <> " + pair[1]);
+        }
+        Assertions.assertNotEquals(FileNameSortKey.of("a01b"), FileNameSortKey.of("a1b"));
+        Assertions.assertEquals(FileNameSortKey.of("a01b"), FileNameSortKey.of("a01b"));
+        
+        List<Path> expected = new ArrayList<>(paths);
+        expected.sort(Comparator.comparing(p -> p.getFileName().toString(), comparator));
+        FileUtils.sortNaturally(paths);
+        Assertions.assertEquals(expected, paths);
+    }
+    
+    @Test
+    void linesTest() throws IOException {
+        Path dir = Files.createTempDirectory("lines");
+        try {
+            List<String> expected = Arrays.asList("first", "", "\u4e2d\u6587 \uD83D\uDE00", "last");
+            String text = "first\r\n\r\n\u4e2d\u6587 \uD83D\uDE00\nlast";
+            Object[][] cases = { 
+                    { new byte[] { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF }, StandardCharsets.UTF_8 },
+                    { new byte[] { (byte) 0xFE, (byte) 0xFF }, StandardCharsets.UTF_16BE },
+                    { new byte[] { (byte) 0xFF, (byte) 0xFE }, StandardCharsets.UTF_16LE },
+                    { new byte[] { 0, 0, (byte) 0xFE, (byte) 0xFF }, Charset.forName("UTF-32BE") },
+                    { new byte[] { (byte) 0xFF, (byte) 0xFE, 0, 0 }, Charset.forName("UTF-32LE") },
+                    { new byte[0], StandardCharsets.UTF_8 } };
+            for (Object[] c : cases) {
+                byte[] bom = (byte[]) c[0];
+                byte[] content = text.getBytes((Charset) c[1]);
+                Path file = dir.resolve("bom" + bom.length + c[1].toString() + ".txt");
+                Files.write(file, Bytes.concat(bom, content));
+                try (Stream<String> lines = FileUtils.lines(file)) {
+                    Assertions.assertEquals(expected, lines.collect(Collectors.toList()), c[1].toString());
+                }
+                Assertions.assertEquals(bom.length > 0 ? expected : null, FileUtils.readAllLinesForBOM(file));
+            }
+            
+            // 较大的文件，并行读取的结果与顺序读取一致
+            Path big = dir.resolve("big.txt");
+            List<String> bigLines = IntStream.range(0, 300000).mapToObj(i -> "line " + i + (i % 7 == 0 ? "\r" : ""))
+                    .collect(Collectors.toList());
+            Files.write(big, bigLines, StandardCharsets.UTF_8);
+            List<String> stripped = bigLines.stream().map(l -> l.replace("\r", "")).collect(Collectors.toList());
+            try (Stream<String> lines = FileUtils.lines(big)) {
+                Assertions.assertEquals(stripped, lines.parallel().collect(Collectors.toList()));
+            }
+            try (Stream<String> lines = FileUtils.lines(big)) {
+                Assertions.assertEquals(stripped.size(), lines.count());
+            }
+            // 大量短行且超过映射窗口大小（32MB）：每行不应重新映射窗口，否则映射数将超过系统限制
+            Path many = dir.resolve("many.txt");
+            int manyCount = 2_000_000;
+            try (BufferedWriter writer = Files.newBufferedWriter(many, StandardCharsets.UTF_8)) {
+                for (int i = 0; i < manyCount; i++) {
+                    writer.write(String.format(i % 10 == 0 ? "ab %16d\r\n" : "a %17d\n", i));
+                }
+            }
+            AtomicInteger index = new AtomicInteger();
+            AtomicInteger maxMappings = new AtomicInteger();
+            try (Stream<String> lines = FileUtils.lines(many)) {
+                Assertions.assertEquals(manyCount, lines
+                        .peek(line -> {
+                            if (index.incrementAndGet() % 100000 == 0) {
+                                maxMappings.accumulateAndGet(countMappings(many), Math::max);
+                            }
+                        })
+                        .count());
+            }
+            // Linux下可通过/proc/self/maps确认同时存在的映射数
+            Assertions.assertTrue(maxMappings.get() <= 2, "映射数：" + maxMappings.get());
+            try (Stream<String> lines = FileUtils.lines(many)) {
+                Assertions.assertEquals(manyCount / 10, lines.parallel().filter(line -> line.startsWith("ab")).count());
+            }
+            try (Stream<String> lines = FileUtils.lines(dir.resolve("bom0UTF-8.txt"))) {
+                Assertions.assertEquals(Arrays.asList("first"), lines.limit(1).collect(Collectors.toList()));
+            }
+        } finally {
+            FileUtils.clearDirectory(dir, true);
+        }
+    }
+    
+    /** 当前进程中映射了给定文件的区域数，不支持/proc/self/maps的系统返回0 */
+    private static int countMappings(Path file) {
+        Path maps = Paths.get("/proc/self/maps");
+        if (!Files.isReadable(maps)) {
+            return 0;
+        }
+        try (Stream<String> lines = Files.lines(maps)) {
+            String name = file.toAbsolutePath().toString();
+            return (int) lines.filter(line -> line.endsWith(name)).count();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+    
+    @Test
+    void readBufferTest() throws IOException {
+        Path dir = Files.createTempDirectory("readBuffer");
+        try {
+            byte[] content = new byte[3 * 1024 * 1024 + 123];
+            new Random(13).nextBytes(content);
+            Path file = dir.resolve("data.bin");
+            Files.write(file, content);
+            
+            ByteBuffer mapped = FileUtils.readBuffer(file);
+            Assertions.assertTrue(mapped instanceof MappedByteBuffer);
+            Assertions.assertEquals(ByteBuffer.wrap(content), mapped);
+            ByteBuffer heap = FileUtils.readBuffer(file, Long.MAX_VALUE);
+            Assertions.assertFalse(heap.isDirect());
+            Assertions.assertEquals(ByteBuffer.wrap(content), heap);
+            
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (ChunkedFileReader reader = FileUtils.readChunks(file, 64 * 1024)) {
+                FileChunk chunk;
+                while ((chunk = reader.next()) != null) {
+                    try (FileChunk c = chunk) {
+                        Assertions.assertEquals(out.size(), c.getOffset());
+                        byte[] bytes = new byte[c.size()];
+                        c.getBuffer().get(bytes);
+                        out.write(bytes);
+                    }
+                    Assertions.assertThrows(IllegalStateException.class, chunk::getBuffer);
+                }
+            }
+            Assertions.assertArrayEquals(content, out.toByteArray());
+            
+            CRC32 crc32 = new CRC32();
+            crc32.update(content);
+            Assertions.assertEquals(Long.toString(crc32.getValue()), CheckUtils.getCRC32(file));
+        } finally {
+            FileUtils.clearDirectory(dir, true);
+        }
+    }
+    
+    @Test
+    void detectImageTest() throws IOException {
+        Path dir = Files.createTempDirectory("detectImage");
+        try {
+            Path jpeg = dir.resolve("photo.txt");// 后缀错误的图片
+            Files.write(jpeg, new byte[] { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10 });
+            Path png = dir.resolve("a.png");
+            Files.write(png, new byte[] { (byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0x0D });
+            Path gif = dir.resolve("a.gif");
+            Files.write(gif, "GIF89a\u0001\u0000".getBytes(StandardCharsets.US_ASCII));
+            Path bmp = dir.resolve("a.bmp");
+            Files.write(bmp, new byte[] { 'B', 'M', 0x3A, 0, 0, 0, 0, 0, 0, 0, 0x36, 0, 0, 0 });
+            Path webp = dir.resolve("a.webp");
+            Files.write(webp, "RIFF\u0024\u0000\u0000\u0000WEBPVP8 ".getBytes(StandardCharsets.US_ASCII));
+            Path avif = dir.resolve("a.avif");
+            Files.write(avif, Bytes.concat(new byte[] { 0, 0, 0, 0x1C }, 
+                    "ftypmif1\u0000\u0000\u0000\u0000mif1avifmiaf".getBytes(StandardCharsets.US_ASCII)));
+            Path fakePng = dir.resolve("fake.png");// 后缀为图片的文本
+            Files.write(fakePng, "not an image".getBytes(StandardCharsets.US_ASCII));
+            Path empty = dir.resolve("empty.jpg");
+            Files.createFile(empty);
+            
+            Assertions.assertEquals(Optional.of(ImageFormat.JPEG), FileUtils.detectImage(jpeg));
+            Assertions.assertEquals(Optional.of(ImageFormat.PNG), FileUtils.detectImage(png));
+            Assertions.assertEquals(Optional.of(ImageFormat.GIF), FileUtils.detectImage(gif));
+            Assertions.assertEquals(Optional.of(ImageFormat.BMP), FileUtils.detectImage(bmp));
+            Assertions.assertEquals(Optional.of(ImageFormat.WEBP), FileUtils.detectImage(webp));
+            Assertions.assertEquals(Optional.of(ImageFormat.AVIF), FileUtils.detectImage(avif));
+            Assertions.assertEquals(Optional.empty(), FileUtils.detectImage(fakePng));
+            Assertions.assertEquals(Optional.empty(), FileUtils.detectImage(empty));
+            Assertions.assertEquals(Optional.empty(), FileUtils.detectImage(dir));
+            
+            Assertions.assertTrue(FileUtils.containsImage(dir));
+            Path noImage = Files.createDirectory(dir.resolve("noImage"));
+            Files.copy(fakePng, noImage.resolve("fake.jpg"));
+            Assertions.assertFalse(FileUtils.containsImage(noImage));
+            // 没有魔数的WBMP：通过文件头无法识别，已弃用的isContainImg仍按后缀判断
+            Path wbmpOnly = Files.createDirectory(dir.resolve("wbmpOnly"));
+            Files.write(wbmpOnly.resolve("a.WBMP"), new byte[] { 0, 0, 1, 1, 0 });
+            Assertions.assertFalse(FileUtils.containsImage(wbmpOnly));
+            Assertions.assertTrue(FileUtils.isContainImg(wbmpOnly));
+            Assertions.assertFalse(FileUtils.isContainImg(noImage));
+            Assertions.assertTrue(FileUtils.isContainImg(dir));
+            
+            // 缓存：文件大小或修改时间变化后重新检测
+            ImageDetector detector = new ImageDetector(true);
+            Assertions.assertFalse(detector.isImage(fakePng));
+            Files.copy(png, fakePng, StandardCopyOption.REPLACE_EXISTING);
+            Files.setLastModifiedTime(fakePng, FileTime.fromMillis(System.currentTimeMillis() + 10000));
+            Assertions.assertTrue(detector.isImage(fakePng));
+            
+            // 缓存的条目数有上限
+            ImageDetector small = new ImageDetector(2);
+            Assertions.assertTrue(small.isImage(jpeg));
+            Assertions.assertTrue(small.isImage(gif));
+            Assertions.assertTrue(small.isImage(bmp));
+            // 大小及修改时间不变地改写文件，只有缓存被淘汰时才会重新检测
+            FileTime jpegModified = Files.getLastModifiedTime(jpeg);
+            Files.write(jpeg, "text!!".getBytes(StandardCharsets.US_ASCII));
+            Files.setLastModifiedTime(jpeg, jpegModified);
+            Assertions.assertTrue(small.isImage(bmp));
+            Assertions.assertFalse(small.isImage(jpeg));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new ImageDetector(-1));
+        } finally {
+            FileUtils.clearDirectory(dir, true);
+        }
+    }
+    
+    @Test
+    void rankPathsTest() throws IOException {
+        Path dir = Files.createTempDirectory("rankPaths");
+        try {
+            List<Path> paths = new ArrayList<>();
+            long now = System.currentTimeMillis();
+            List<Integer> ages = IntStream.range(0, 200).boxed().collect(Collectors.toList());
+            Collections.shuffle(ages, new Random(3));
+            for (int age : ages) {
+                Path file = Files.createFile(dir.resolve("backup" + age));
+                Files.setLastModifiedTime(file, FileTime.fromMillis(now - age * 60000L));
+                paths.add(file);
+            }
+            
+            PathRanking ranking = FileUtils.rankPaths(paths, BasicFileAttributes::lastModifiedTime, 
+                    Comparator.naturalOrder(), 5, 16);
+            List<Path> newest = IntStream.range(0, 5).mapToObj(i -> dir.resolve("backup" + i))
+                    .collect(Collectors.toList());
+            Assertions.assertEquals(newest, ranking.getWinners());
+            Assertions.assertEquals(195, ranking.getLosers().size());
+            Set<Path> all = new HashSet<>(ranking.getLosers());
+            all.addAll(ranking.getWinners());
+            Assertions.assertEquals(new HashSet<>(paths), all);
+            
+            Assertions.assertEquals(200, FileUtils.rankPaths(paths, BasicFileAttributes::lastModifiedTime, 
+                    Comparator.naturalOrder(), 1000).getWinners().size());
+            Assertions.assertEquals(200, FileUtils.rankPaths(paths, BasicFileAttributes::lastModifiedTime, 
+                    Comparator.naturalOrder(), 0).getLosers().size());
+            
+            paths.add(dir.resolve("notExists"));
+            Assertions.assertThrows(WrapperException.class, () -> FileUtils.rankPaths(paths, 
+                    BasicFileAttributes::size, Comparator.naturalOrder(), 5));
+        } finally {
+            FileUtils.clearDirectory(dir, true);
+        }
+    }
+    
+    @Test
+    void recursiveDirectoryWatcherTest() throws Exception {
+        Path dir = createTree(2, 2, 2);
+        // 名称中含有比分隔符小的字符，在有序的状态中位于被删除的目录与其子树之间，不应被一同删除
+        Path sibling = Files.createDirectory(dir.resolve("dir1").resolve("dir0-x"));
+        Path siblingFile = Files.write(sibling.resolve("a.txt"), new byte[] { 1 });
+        Map<Path, FileChangeEvent.Kind> events = new ConcurrentHashMap<>();
+        AtomicInteger batches = new AtomicInteger();
+        try (RecursiveDirectoryWatcher watcher = RecursiveDirectoryWatcher.start(dir, 200, batch -> {
+            batches.incrementAndGet();
+            batch.forEach(e -> events.put(e.getPath(), e.getKind()));
+        })) {
+            Assertions.assertEquals(8, watcher.getWatchedDirectories());
+            
+            // 新建的目录及其中立即创建的文件
+            Path newDir = Files.createDirectories(dir.resolve("new").resolve("sub"));
+            Path newFile = Files.write(newDir.resolve("a.txt"), new byte[] { 1 });
+            Path modified = dir.resolve("dir0").resolve("file0.txt");
+            Files.write(modified, new byte[] { 1, 2, 3 }, StandardOpenOption.APPEND);
+            Path deleted = dir.resolve("dir1").resolve("dir0");
+            FileUtils.clearDirectory(deleted, true);
+            // 创建后立即删除的文件不会出现
+            Path transientFile = Files.createFile(dir.resolve("transient"));
+            Files.delete(transientFile);
+            
+            long deadline = System.currentTimeMillis() + 10000;
+            while (System.currentTimeMillis() < deadline && (events.size() < 7 || !events.containsKey(modified))) {
+                Thread.sleep(50);
+            }
+            Assertions.assertEquals(FileChangeEvent.Kind.CREATE, events.get(dir.resolve("new")));
+            Assertions.assertEquals(FileChangeEvent.Kind.CREATE, events.get(newDir));
+            Assertions.assertEquals(FileChangeEvent.Kind.CREATE, events.get(newFile));
+            Assertions.assertEquals(FileChangeEvent.Kind.MODIFY, events.get(modified));
+            Assertions.assertEquals(FileChangeEvent.Kind.DELETE, events.get(deleted));
+            Assertions.assertEquals(FileChangeEvent.Kind.DELETE, events.get(deleted.resolve("file1.txt")));
+            Assertions.assertFalse(events.containsKey(transientFile));
+            Assertions.assertFalse(events.containsKey(sibling));
+            Assertions.assertTrue(batches.get() >= 1);
+            // 新目录已注册，删除的目录已注销
+            Assertions.assertEquals(8 + 2 - 1, watcher.getWatchedDirectories());
+            
+            // 未随被删除的目录一同删除的兄弟目录仍在监听
+            events.clear();
+            Files.write(siblingFile, new byte[] { 1, 2 });
+            deadline = System.currentTimeMillis() + 10000;
+            while (System.currentTimeMillis() < deadline && !events.containsKey(siblingFile)) {
+                Thread.sleep(50);
+            }
+            Assertions.assertEquals(FileChangeEvent.Kind.MODIFY, events.get(siblingFile));
+        } finally {
+            FileUtils.clearDirectory(dir, true);
+        }
+    }
+    
+    @Test
+    void recursiveDirectoryWatcherLatencyTest() throws Exception {
+        Path dir = Files.createTempDirectory("watcher");
+        List<Long> batchTimes = new CopyOnWriteArrayList<>();
+        try (RecursiveDirectoryWatcher watcher = RecursiveDirectoryWatcher.start(dir, 500, 800,
+                batch -> batchTimes.add(System.currentTimeMillis()))) {
+            // 事件持续不断，静默期永远不会到来，仍应在最大延迟后通知
+            long start = System.currentTimeMillis();
+            long end = start + 3000;
+            for (int i = 0; System.currentTimeMillis() < end; i++) {
+                Files.write(dir.resolve("file" + i % 10), new byte[] { (byte) i });
+                Thread.sleep(100);
+            }
+            Assertions.assertFalse(batchTimes.isEmpty());
+            // 只验证事件未被无限推迟，不对具体耗时作严格要求
+            Assertions.assertTrue(batchTimes.get(0) < end, () -> "first batch at " + (batchTimes.get(0) - start));
+        } finally {
+            FileUtils.clearDirectory(dir, true);
+        }
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> RecursiveDirectoryWatcher.start(Paths.get("."), 1000, 500, batch -> {}));
+    }
+    
+    @Test
+    void directorySnapshotTest() throws IOException {
+        Path dir = createTree(2, 3, 3);
+        Path snapshots = Files.createTempDirectory("snapshots");
+        try {
+            // 名称中含有比/小的字符，检验排序
+            Files.createDirectory(dir.resolve("dir0-x"));
+            Files.write(dir.resolve("dir0-x").resolve("a"), new byte[] { 1 });
+            Path old = snapshots.resolve("old.snapshot");
+            Assertions.assertEquals(3 + 3 + 3 * 3 + 9 + 9 * 3 + 2, DirectorySnapshot.write(dir, old, true));
+            try (Stream<SnapshotEntry> entries = DirectorySnapshot.read(old)) {
+                List<String> paths = entries.map(SnapshotEntry::getPath).collect(Collectors.toList());
+                List<String> sorted = new ArrayList<>(paths);
+                sorted.sort(DirectorySnapshot::comparePaths);
+                Assertions.assertEquals(sorted, paths);
+                Assertions.assertEquals(Arrays.asList("dir0", "dir0/dir0", "dir0/dir0/file0.txt"), paths.subList(0, 3));
+                Assertions.assertTrue(paths.indexOf("dir0/file2.txt") < paths.indexOf("dir0-x"));
+            }
+            
+            Path modified = dir.resolve("dir1").resolve("file0.txt");
+            Files.write(modified, "changed".getBytes());
+            // 大小、修改时间均不变，只有散列值改变
+            Path sameSize = dir.resolve("file1.txt");
+            FileTime time = Files.getLastModifiedTime(sameSize);
+            byte[] content = Files.readAllBytes(sameSize);
+            content[0]++;
+            Files.write(sameSize, content);
+            Files.setLastModifiedTime(sameSize, time);
+            FileUtils.clearDirectory(dir.resolve("dir2").resolve("dir1"), true);
+            Files.write(dir.resolve("dir2").resolve("added.txt"), new byte[0]);
+            
+            Path current = snapshots.resolve("new.snapshot");
+            DirectorySnapshot.write(dir, current, true);
+            try (Stream<SnapshotDiff> diffs = DirectorySnapshot.diff(old, current)) {
+                List<String> result = diffs.map(d -> d.getKind() + " " + d.getPath()).collect(Collectors.toList());
+                Assertions.assertEquals(Arrays.asList(
+                        "MODIFIED dir1/file0.txt", 
+                        "ADDED dir2/added.txt", 
+                        "REMOVED dir2/dir1", 
+                        "REMOVED dir2/dir1/file0.txt", 
+                        "REMOVED dir2/dir1/file1.txt", 
+                        "REMOVED dir2/dir1/file2.txt", 
+                        "MODIFIED file1.txt"), result);
+            }
+            try (Stream<SnapshotDiff> diffs = DirectorySnapshot.diff(current, current)) {
+                Assertions.assertEquals(0, diffs.count());
+            }
+        } finally {
+            FileUtils.clearDirectory(dir, true);
+            FileUtils.clearDirectory(snapshots, true);
+        }
+    }
+    
+    @Test
+    void searchTest() throws IOException {
+        Path dir = createTree(2, 3, 2);
+        try {
+            Path log = dir.resolve("dir1").resolve("app.log");
+            Files.write(log, Arrays.asList("start", "ERROR first failure", "ok", "\u4e2d\u6587 ERROR again\r", "end"),
+                    StandardCharsets.UTF_8);
+            Path binary = dir.resolve("dir2").resolve("data.bin");
+            Files.write(binary, Bytes.concat(new byte[] { 0, 1, 2 }, "ERROR".getBytes()));
+            
+            List<SearchMatch> matches;
+            try (Stream<SearchMatch> stream = FileUtils.search(dir, "ERROR", SearchOptions.defaults())) {
+                matches = stream.collect(Collectors.toList());
+            }
+            Assertions.assertEquals(2, matches.size());
+            SearchMatch first = matches.get(0);
+            Assertions.assertEquals(log, first.getPath());
+            Assertions.assertEquals(2, first.getLine());
+            Assertions.assertEquals("start\n".length(), first.getOffset());
+            Assertions.assertEquals("ERROR first failure", first.getText());
+            SearchMatch second = matches.get(1);
+            Assertions.assertEquals(4, second.getLine());
+            Assertions.assertEquals("start\nERROR first failure\nok\n\u4e2d\u6587 ".getBytes(StandardCharsets.UTF_8).length, 
+                    second.getOffset());
+            Assertions.assertEquals("\u4e2d\u6587 ERROR again", second.getText());
+            
+            // 正则表达式与普通字符串的结果一致
+            try (Stream<SearchMatch> stream = FileUtils.search(dir, "E[R]+OR", SearchOptions.builder().regex(true).build())) {
+                List<SearchMatch> regexMatches = stream.collect(Collectors.toList());
+                Assertions.assertEquals(matches.toString(), regexMatches.toString());
+            }
+            try (Stream<SearchMatch> stream = FileUtils.search(dir, "error", SearchOptions.builder()
+                    .ignoreCase(true).skipBinary(false).build())) {
+                Assertions.assertEquals(3, stream.count());
+            }
+            // 匹配所有文件，只取前几个后关闭
+            try (Stream<SearchMatch> stream = FileUtils.search(dir, "content", SearchOptions.builder()
+                    .parallelism(2).build())) {
+                Assertions.assertEquals(3, stream.limit(3).count());
+            }
+            try (Stream<SearchMatch> stream = FileUtils.search(dir, "content", SearchOptions.builder()
+                    .maxMatchesPerFile(1).fileFilter(p -> p.toString().endsWith("file0.txt")).build())) {
+                Assertions.assertEquals(13, stream.count());
+            }
+            // 文件过滤条件抛出异常时，不会一直等待，而是将异常抛给调用方
+            Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                try (Stream<SearchMatch> stream = FileUtils.search(dir, "content", SearchOptions.builder()
+                        .fileFilter(p -> {
+                            throw new IllegalStateException("filter failed");
+                        }).build())) {
+                    IllegalStateException e = Assertions.assertThrows(IllegalStateException.class, stream::count);
+                    Assertions.assertEquals("filter failed", e.getMessage());
+                }
+            });
+        } finally {
+            FileUtils.clearDirectory(dir, true);
+        }
+    }
+    
 }